@@ -0,0 +1,4 @@
+-- One-off migration for databases with pronunciations stored before keys carried a language.
+-- Those rows were all German, so they get the "de:" prefix. New rows are written with it, and
+-- rerunning this is harmless.
+UPDATE pronunciations SET word = 'de:' || word WHERE word NOT LIKE '%:%';
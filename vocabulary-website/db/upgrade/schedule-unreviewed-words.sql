@@ -0,0 +1,4 @@
+-- One-off migration for databases that have user_words rows from before the review scheduler.
+-- Those rows got a NULL due_at when the column was added, and the due queue never returns them.
+-- New words are inserted with due_at = added_at, so this only needs to run once. Rerunning it is harmless.
+UPDATE user_words SET due_at = added_at WHERE due_at IS NULL;
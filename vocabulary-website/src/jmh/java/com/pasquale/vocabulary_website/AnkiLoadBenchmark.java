@@ -0,0 +1,76 @@
+package com.pasquale.vocabulary_website;
+
+import com.pasquale.vocabulary_website.Entity.VocabularyItem;
+import com.pasquale.vocabulary_website.Utils.AnkiDatasetReader;
+import com.pasquale.vocabulary_website.Utils.VocabularyDeck;
+import com.pasquale.vocabulary_website.Utils.VocabularySnapshotFile;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Deck load at startup: map-based readAnkiDataset + VocabularyItem::new vs the streaming typed reader,
+// serial and parallel, and the cold-start path that checksums the .apkg and reads its binary snapshot.
+// Run with -prof gc to compare allocation per load.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class AnkiLoadBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int notes;
+
+    // Parser threads for the streaming reader (0 = one per core)
+    @Param({"1", "0"})
+    int workers;
+
+    Path directory;
+    Path deck;
+    Path snapshot;
+    AnkiDatasetReader reader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("anki-bench");
+        deck = SyntheticAnkiDeck.write(directory, notes);
+        reader = new AnkiDatasetReader(workers);
+        byte[] checksum = VocabularySnapshotFile.checksum(deck);
+        snapshot = directory.resolve(VocabularySnapshotFile.fileName(checksum));
+        VocabularyDeck.Builder builder = VocabularyDeck.builder(notes);
+        reader.readVocabularyItems(deck.toString(), builder::add);
+        VocabularySnapshotFile.write(snapshot, checksum, builder.build());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(deck);
+        Files.deleteIfExists(snapshot);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public List<VocabularyItem> mapsThenItems() throws Exception {
+        return reader.readAnkiDataset(deck.toString()).stream()
+                .map(VocabularyItem::new)
+                .filter(item -> item.getNoteId() != 0)
+                .toList();
+    }
+
+    @Benchmark
+    public List<VocabularyItem> streamingItems() throws Exception {
+        List<VocabularyItem> items = new ArrayList<>();
+        reader.readVocabularyItems(deck.toString(), items::add);
+        return items;
+    }
+
+    @Benchmark
+    public VocabularyDeck fromSnapshot() throws Exception {
+        return VocabularySnapshotFile.read(snapshot, VocabularySnapshotFile.checksum(deck));
+    }
+}
@@ -0,0 +1,86 @@
+package com.pasquale.vocabulary_website;
+
+import com.pasquale.vocabulary_website.Auth.AuthTokenFilter;
+import com.pasquale.vocabulary_website.Auth.JwtUtils;
+import com.pasquale.vocabulary_website.Service.UserDetailsImpl;
+import com.pasquale.vocabulary_website.Service.UserService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// AuthTokenFilter on one request: a current token (principal from its claims), a token without the user id
+// (claims plus a stubbed user lookup, so the database is not part of the number) and a request without one
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthTokenFilterBenchmark {
+    private static final String SECRET = "c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0";
+
+    AuthTokenFilter filter;
+    String token;
+    String legacyToken;
+
+    @Setup
+    public void setUp() {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 3_600_000);
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+        UserService userService = mock(UserService.class);
+        when(userService.loadUserByUsername("bob")).thenReturn(new UserDetailsImpl(8, "bob", "bob@example.com", "hash", new ArrayList<>()));
+        filter = new AuthTokenFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filter, "userService", userService);
+        ReflectionTestUtils.setField(filter, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(filter, "init");
+
+        UserDetailsImpl alice = new UserDetailsImpl(7, "alice", "alice@example.com", "hash", new ArrayList<>());
+        token = jwtUtils.generateToken(new UsernamePasswordAuthenticationToken(alice, null));
+        legacyToken = Jwts.builder().setSubject("bob").setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(SignatureAlgorithm.HS512, SECRET).compact();
+    }
+
+    private Authentication filter(String bearer) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/vocabulary/new-words");
+        if (bearer != null) {
+            request.addHeader("Authorization", "Bearer " + bearer);
+        }
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public Authentication token() throws Exception {
+        return filter(token);
+    }
+
+    @Benchmark
+    public Authentication legacyToken() throws Exception {
+        return filter(legacyToken);
+    }
+
+    @Benchmark
+    public Authentication noToken() throws Exception {
+        return filter(null);
+    }
+}
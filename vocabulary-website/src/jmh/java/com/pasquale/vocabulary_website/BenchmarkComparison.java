@@ -0,0 +1,77 @@
+package com.pasquale.vocabulary_website;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON results benchmark by benchmark: baseline and current score, the change, and whether
+ * it is outside both runs' error margins. Benchmarks only in one of the files are listed as added or removed.
+ * The benchmarks profile writes target/jmh-result.json; keep a copy of it as the baseline:
+ *
+ * mvn -Pbenchmarks test-compile exec:java -Dexec.mainClass=com.pasquale.vocabulary_website.BenchmarkComparison
+ *     -Dexec.classpathScope=test -Djmh.baseline=jmh-baseline.json [-Djmh.current=target/jmh-result.json]
+ */
+public class BenchmarkComparison {
+
+    public static void main(String[] args) throws Exception {
+        String baselineFile = System.getProperty("jmh.baseline");
+        if (baselineFile == null) {
+            System.err.println("Set -Djmh.baseline to the JMH JSON result to compare against");
+            System.exit(2);
+        }
+        Map<String, JsonNode> baseline = read(new File(baselineFile));
+        Map<String, JsonNode> current = read(new File(System.getProperty("jmh.current", "target/jmh-result.json")));
+
+        Map<String, Boolean> keys = new TreeMap<>();
+        baseline.keySet().forEach(key -> keys.put(key, true));
+        current.keySet().forEach(key -> keys.put(key, true));
+        System.out.printf("%-80s %14s %14s %9s  %s%n", "Benchmark", "Baseline", "Current", "Change", "Unit");
+        for (String key : keys.keySet()) {
+            JsonNode before = baseline.get(key);
+            JsonNode after = current.get(key);
+            if (before == null || after == null) {
+                JsonNode only = before == null ? after : before;
+                System.out.printf("%-80s %14s %14s %9s  %s%n", key, before == null ? "-" : score(before), after == null ? "-" : score(after),
+                        before == null ? "added" : "removed", only.path("scoreUnit").asText());
+                continue;
+            }
+            double from = before.path("score").asDouble();
+            double to = after.path("score").asDouble();
+            // Outside the 99.9% confidence intervals of both runs; anything inside them is noise
+            boolean significant = Math.abs(to - from) > errorOf(before) + errorOf(after);
+            System.out.printf("%-80s %14s %14s %+8.1f%%  %s%s%n", key, score(before), score(after),
+                    from == 0 ? 0 : (to - from) * 100 / from, after.path("scoreUnit").asText(), significant ? "  *" : "");
+        }
+    }
+
+    // Primary metric per benchmark, keyed by its name, mode and parameters
+    private static Map<String, JsonNode> read(File file) throws Exception {
+        Map<String, JsonNode> metrics = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(run.path("benchmark").asText().replace(BenchmarkComparison.class.getPackageName() + ".", ""))
+                    .append(" ").append(run.path("mode").asText());
+            for (Iterator<Map.Entry<String, JsonNode>> params = run.path("params").fields(); params.hasNext(); ) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(" ").append(param.getKey()).append("=").append(param.getValue().asText());
+            }
+            metrics.put(key.toString(), run.path("primaryMetric"));
+        }
+        return metrics;
+    }
+
+    private static String score(JsonNode metric) {
+        return String.format("%.3f", metric.path("score").asDouble());
+    }
+
+    // NaN when a run had too few iterations to have one
+    private static double errorOf(JsonNode metric) {
+        double error = metric.path("scoreError").asDouble(Double.NaN);
+        return Double.isNaN(error) ? 0 : error;
+    }
+}
@@ -0,0 +1,77 @@
+package com.pasquale.vocabulary_website;
+
+import com.pasquale.vocabulary_website.Entity.VocabularyItem;
+import com.pasquale.vocabulary_website.Repository.PronunciationRepository;
+import com.pasquale.vocabulary_website.Service.PronunciationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+// Latency of enriching one /new-words response against a local stub Forvo (20-120 ms per word).
+// SampleTime mode reports p50/p99; concurrency=1 reproduces the old one-word-at-a-time path.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class EnrichmentBenchmark {
+
+    @Param({"10", "50"})
+    int words;
+
+    @Param({"1", "8"})
+    int concurrency;
+
+    // Warm: every word is already in the pronunciation cache
+    @Param({"false", "true"})
+    boolean warm;
+
+    StubForvoServer forvo;
+    PronunciationService service;
+    List<VocabularyItem> items;
+
+    @Setup
+    public void setUp() throws Exception {
+        forvo = new StubForvoServer(word -> 20 + Math.floorMod(word.hashCode(), 101));
+        items = new ArrayList<>();
+        for (int i = 0; i < words; i++) {
+            VocabularyItem item = new VocabularyItem();
+            item.setNoteId((long) i);
+            item.setGerman("Wort" + i);
+            items.add(item);
+        }
+        if (warm) {
+            service = newService();
+            service.enrich(items);
+        }
+    }
+
+    // Cold: fresh service (and so an empty pronunciation cache) per call, so every word goes to the stub
+    @Setup(Level.Invocation)
+    public void coldCache() {
+        if (!warm) {
+            service = newService();
+        }
+    }
+
+    private PronunciationService newService() {
+        return new PronunciationService(WebClient.builder(), mock(PronunciationRepository.class), new SimpleMeterRegistry(), "key", forvo.baseUrl(), concurrency, 60_000, 1_000, 1, 1, 30, 24, 1_000_000_000L, 0.0, false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        forvo.close();
+    }
+
+    @Benchmark
+    public List<VocabularyItem> enrich() {
+        return service.enrich(items);
+    }
+}
@@ -0,0 +1,169 @@
+package com.pasquale.vocabulary_website;
+
+import com.pasquale.vocabulary_website.Utils.NoteIdSet;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Row-per-word user_words against one packed user_progress row, on a file-backed H2 with the production tables.
+// read: load one user's seen set; write: hand out 50 words (rolled back, so the user's set doesn't grow).
+// Table sizes per user are printed at the end of each trial.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProgressStorageBenchmark {
+    private static final int USERS = 20;
+    private static final int DECK_NOTES = 100_000;
+    private static final int HAND_OUT = 50;
+
+    @Param({"1000", "50000"})
+    int seen;
+
+    Path directory;
+    Connection connection;
+    long[] deck;
+    long[] handOut;
+    int user;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        // Note ids as Anki creates them for an imported deck: epoch millis, a few apart
+        Random random = new Random(42);
+        deck = new long[DECK_NOTES];
+        long id = 1_500_000_000_000L;
+        for (int i = 0; i < DECK_NOTES; i++) {
+            id += 1 + random.nextInt(20);
+            deck[i] = id;
+        }
+        directory = Files.createTempDirectory("progress-bench");
+        connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("db"), "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE user_words (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,"
+                    + " user_id INT, anki_note_id BIGINT NOT NULL, added_at TIMESTAMP(6), ease_factor DOUBLE PRECISION,"
+                    + " interval_days INT, repetitions INT, due_at TIMESTAMP(6), last_reviewed_at TIMESTAMP(6))");
+            statement.execute("CREATE INDEX idx_user_words_user_due ON user_words (user_id, due_at, id)");
+            statement.execute("CREATE INDEX idx_user_words_user_note ON user_words (user_id, anki_note_id)");
+            statement.execute("CREATE TABLE user_progress (user_id INT PRIMARY KEY, seen_notes VARBINARY(67108864) NOT NULL,"
+                    + " note_count INT NOT NULL, words_version BIGINT NOT NULL, updated_at TIMESTAMP(6))");
+        }
+        connection.setAutoCommit(false);
+        for (int u = 1; u <= USERS; u++) {
+            long[] noteIds = pick(random, seen);
+            insertRows(u, noteIds);
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO user_progress VALUES (?, ?, ?, ?, ?)")) {
+                byte[] packed = NoteIdSet.encode(noteIds);
+                insert.setInt(1, u);
+                insert.setBytes(2, packed);
+                insert.setInt(3, NoteIdSet.count(packed));
+                insert.setLong(4, 1);
+                insert.setTimestamp(5, Timestamp.valueOf(LocalDateTime.now()));
+                insert.executeUpdate();
+            }
+            connection.commit();
+        }
+        user = USERS / 2;
+        handOut = pick(random, HAND_OUT);
+    }
+
+    private long[] pick(Random random, int count) {
+        return random.ints(0, DECK_NOTES).distinct().limit(count).mapToLong(i -> deck[i]).toArray();
+    }
+
+    private void insertRows(int userId, long[] noteIds) throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO user_words (user_id, anki_note_id,"
+                + " added_at, ease_factor, interval_days, repetitions, due_at) VALUES (?, ?, ?, 2.5, 0, 0, ?)")) {
+            for (long noteId : noteIds) {
+                insert.setInt(1, userId);
+                insert.setLong(2, noteId);
+                insert.setTimestamp(3, now);
+                insert.setTimestamp(4, now);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        connection.rollback();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CHECKPOINT SYNC");
+            try (ResultSet sizes = statement.executeQuery("SELECT DISK_SPACE_USED('USER_WORDS'),"
+                    + " DISK_SPACE_USED('USER_PROGRESS'), (SELECT SUM(OCTET_LENGTH(seen_notes)) FROM user_progress)")) {
+                sizes.next();
+                System.out.printf("%n%d seen notes per user: user_words %d bytes/user (table and indexes),"
+                                + " user_progress %d bytes/user (%d bytes of packed set)%n", seen,
+                        sizes.getLong(1) / USERS, sizes.getLong(2) / USERS, sizes.getLong(3) / USERS);
+            }
+        }
+        connection.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void readRows(Blackhole blackhole) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement("SELECT anki_note_id FROM user_words WHERE user_id = ?")) {
+            query.setInt(1, user);
+            try (ResultSet rows = query.executeQuery()) {
+                while (rows.next()) {
+                    blackhole.consume(rows.getLong(1));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void readCompact(Blackhole blackhole) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement("SELECT seen_notes FROM user_progress WHERE user_id = ? AND words_version = ?")) {
+            query.setInt(1, user);
+            query.setLong(2, 1);
+            try (ResultSet rows = query.executeQuery()) {
+                rows.next();
+                NoteIdSet.forEach(rows.getBytes(1), blackhole::consume);
+            }
+        }
+    }
+
+    @Benchmark
+    public void writeRows() throws SQLException {
+        insertRows(user, handOut);
+        connection.rollback();
+    }
+
+    // Merge-on-write: lock the row, merge the batch into the packed set, write it back
+    @Benchmark
+    public void writeCompact() throws SQLException {
+        byte[] stored;
+        try (PreparedStatement query = connection.prepareStatement("SELECT seen_notes FROM user_progress WHERE user_id = ? FOR UPDATE")) {
+            query.setInt(1, user);
+            try (ResultSet rows = query.executeQuery()) {
+                rows.next();
+                stored = rows.getBytes(1);
+            }
+        }
+        byte[] merged = NoteIdSet.merge(stored, handOut);
+        try (PreparedStatement update = connection.prepareStatement("UPDATE user_progress SET seen_notes = ?, note_count = ?,"
+                + " words_version = words_version + 1, updated_at = ? WHERE user_id = ?")) {
+            update.setBytes(1, merged);
+            update.setInt(2, NoteIdSet.count(merged));
+            update.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+            update.setInt(4, user);
+            update.executeUpdate();
+        }
+        connection.rollback();
+    }
+}
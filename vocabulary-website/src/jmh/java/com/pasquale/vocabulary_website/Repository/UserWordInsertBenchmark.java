@@ -0,0 +1,113 @@
+package com.pasquale.vocabulary_website.Repository;
+
+import com.pasquale.vocabulary_website.Entity.ApplicationUser;
+import com.pasquale.vocabulary_website.Entity.UserWord;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Handing out a batch of words: what saveAll does with the IDENTITY id (one INSERT per row, reading back each
+// generated key) against UserWordJdbcRepositoryImpl.insertAll (multi-row INSERTs). In this package because the
+// repository implementation is package-private. Every invocation is rolled back, so the table doesn't grow.
+//
+// File-backed H2 by default, which runs in-process: there is no network round trip per statement, which is most
+// of what the multi-row insert saves. For PostgreSQL, point it at an empty scratch database (it creates user_words):
+// -Djmh.args="UserWordInsertBenchmark -jvmArgsAppend -Dbench.jdbc.url=jdbc:postgresql://localhost/scratch
+//     -Dbench.jdbc.user=... -Dbench.jdbc.password=..."
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserWordInsertBenchmark {
+    @Param({"10", "50", "500"})
+    int words;
+
+    Path directory;
+    Connection connection;
+    UserWordJdbcRepositoryImpl repository;
+    List<UserWord> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String url = System.getProperty("bench.jdbc.url");
+        if (url == null) {
+            directory = Files.createTempDirectory("insert-bench");
+            url = "jdbc:h2:file:" + directory.resolve("db") + ";MODE=PostgreSQL";
+        }
+        connection = DriverManager.getConnection(url, System.getProperty("bench.jdbc.user", "sa"),
+                System.getProperty("bench.jdbc.password", ""));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS user_words (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,"
+                    + " user_id INT, anki_note_id BIGINT NOT NULL, added_at TIMESTAMP(6), ease_factor DOUBLE PRECISION,"
+                    + " interval_days INT, repetitions INT, due_at TIMESTAMP(6), last_reviewed_at TIMESTAMP(6))");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_user_words_user_due ON user_words (user_id, due_at, id)");
+            statement.execute("CREATE INDEX IF NOT EXISTS idx_user_words_user_note ON user_words (user_id, anki_note_id)");
+        }
+        connection.setAutoCommit(false);
+        repository = new UserWordJdbcRepositoryImpl(
+                new JdbcTemplate(new SingleConnectionDataSource(connection, true)), new SimpleMeterRegistry());
+
+        ApplicationUser user = new ApplicationUser();
+        user.setId(1);
+        batch = new ArrayList<>(words);
+        for (int i = 0; i < words; i++) {
+            batch.add(new UserWord(user, 1_500_000_000_000L + i * 7L));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        connection.rollback();
+        connection.close();
+        if (directory != null) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    // The statements Hibernate sends for saveAll when ids come from an IDENTITY column; without the persistence
+    // context's own work, so this is the floor of what saveAll cost
+    @Benchmark
+    public void rowByRow(Blackhole blackhole) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO user_words (user_id, anki_note_id,"
+                + " added_at, ease_factor, interval_days, repetitions, due_at) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            for (UserWord word : batch) {
+                insert.setInt(1, word.getUser().getId());
+                insert.setLong(2, word.getAnkiNoteId());
+                insert.setTimestamp(3, Timestamp.valueOf(word.getCreated()));
+                insert.setDouble(4, word.getEaseFactor());
+                insert.setInt(5, word.getIntervalDays());
+                insert.setInt(6, word.getRepetitions());
+                insert.setTimestamp(7, Timestamp.valueOf(word.getDueAt()));
+                insert.executeUpdate();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                    blackhole.consume(keys.getLong(1));
+                }
+            }
+        }
+        connection.rollback();
+    }
+
+    @Benchmark
+    public int multiRow() throws SQLException {
+        int inserted = repository.insertAll(batch);
+        connection.rollback();
+        return inserted;
+    }
+}
@@ -0,0 +1,170 @@
+package com.pasquale.vocabulary_website;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pasquale.vocabulary_website.Service.VocabularyService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load test of GET /api/vocabulary/new-words: the app on a random port, a synthetic deck, and the
+ * stub Forvo answering in 20-120 ms. Each concurrency level runs that many clients, each its own user, back to
+ * back for load.seconds and reports throughput, p50/p99 and errors. The highest level whose p99 stays within
+ * load.sloMs with under 1% errors is the max sustainable concurrency.
+ *
+ * App properties are read from system properties (the benchmarks profile fixes exec's arguments for JMH), so
+ * compare the two modes (virtual threads need Java 21) against a local Postgres:
+ *
+ * mvn -Pbenchmarks test-compile exec:java -Dexec.mainClass=com.pasquale.vocabulary_website.RequestLoadTest
+ *     -Dexec.classpathScope=test -Dspring.datasource.url=jdbc:postgresql://localhost/vocabulary
+ *     -Dspring.datasource.username=... -Dspring.datasource.password=...
+ *     -Dspring.threads.virtual.enabled=true
+ *
+ * Without a datasource it runs on in-memory H2, which is only good for checking the harness itself.
+ */
+public class RequestLoadTest {
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        int[] levels = Arrays.stream(System.getProperty("load.levels", "16,64,256,1024").split(","))
+                .mapToInt(level -> Integer.parseInt(level.trim())).toArray();
+        Duration duration = Duration.ofSeconds(Long.getLong("load.seconds", 20));
+        long sloMs = Long.getLong("load.sloMs", 1000);
+
+        Path directory = Files.createTempDirectory("load-test");
+        Path deck = SyntheticAnkiDeck.write(directory, Integer.getInteger("load.notes", 50_000));
+        try (StubForvoServer forvo = new StubForvoServer(word -> 20 + Math.floorMod(word.hashCode(), 101))) {
+            Map<String, Object> defaults = new HashMap<>(VocabularyWebsiteApplication.defaultProperties());
+            defaults.put("server.port", "0");
+            defaults.put("spring.datasource.url", "jdbc:h2:mem:load;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+            defaults.put("spring.jpa.hibernate.ddl-auto", "update");
+            defaults.put("spring.jpa.show-sql", "false");
+            defaults.put("anki.dataset.path", deck.toString());
+            defaults.put("forvo.api.key", "load-test");
+            defaults.put("forvo.api.baseurl", forvo.baseUrl());
+            defaults.put("forvo.prefetch.enabled", "false");
+            defaults.put("forvo.quota.daily", "100000000");
+            defaults.put("app.jwtSecret", Base64.getEncoder().encodeToString(new byte[64]));
+            defaults.put("app.jwtExpirationMs", "3600000");
+            defaults.put("app.bcrypt.strength", "4");
+            try (ConfigurableApplicationContext app = new SpringApplicationBuilder(VocabularyWebsiteApplication.class)
+                    .properties(defaults).run()) {
+                VocabularyService vocabulary = app.getBean(VocabularyService.class);
+                while (!vocabulary.isDeckReady()) {
+                    Thread.sleep(100);
+                }
+                String baseUrl = "http://127.0.0.1:" + ((WebServerApplicationContext) app).getWebServer().getPort();
+                boolean virtual = app.getEnvironment().getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+                System.out.printf("Java %d, virtual threads %s, %s%n", Runtime.version().feature(),
+                        virtual ? "on" : "off", app.getEnvironment().getProperty("spring.datasource.url"));
+
+                HttpClient client = HttpClient.newBuilder().executor(Executors.newCachedThreadPool()).build();
+                List<String> tokens = signIn(client, baseUrl, Arrays.stream(levels).max().orElse(1));
+                System.out.printf("%8s %10s %9s %9s %8s%n", "clients", "req/s", "p50 ms", "p99 ms", "errors");
+                int sustainable = 0;
+                for (int level : levels) {
+                    Result result = run(client, baseUrl, tokens.subList(0, level), duration);
+                    System.out.printf("%8d %10.1f %9.1f %9.1f %7.2f%%%n", level, result.throughput, result.p50Ms, result.p99Ms,
+                            100.0 * result.errorRate);
+                    if (result.p99Ms <= sloMs && result.errorRate < 0.01) {
+                        sustainable = level;
+                    }
+                }
+                System.out.printf("Max sustainable concurrency (p99 <= %d ms, < 1%% errors): %d%n", sloMs, sustainable);
+            }
+        }
+    }
+
+    private static List<String> signIn(HttpClient client, String baseUrl, int users) throws Exception {
+        List<String> tokens = new ArrayList<>(users);
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        for (int i = 0; i < users; i++) {
+            String name = "l" + run + "u" + i;
+            post(client, baseUrl + "/api/auth/signup",
+                    "{\"username\":\"" + name + "\",\"email\":\"" + name + "@example.com\",\"password\":\"password\"}");
+            String body = post(client, baseUrl + "/api/auth/signin", "{\"username\":\"" + name + "\",\"password\":\"password\"}");
+            tokens.add(JSON.readTree(body).get("token").asText());
+        }
+        return tokens;
+    }
+
+    private static String post(HttpClient client, String url, String json) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)).build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(url + " answered " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private static Result run(HttpClient client, String baseUrl, List<String> tokens, Duration duration) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(tokens.size());
+        long end = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<Future<long[]>> latencies = new ArrayList<>();
+        for (String token : tokens) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/vocabulary/new-words?count=10"))
+                    .header("Authorization", "Bearer " + token).timeout(Duration.ofSeconds(30)).build();
+            latencies.add(clients.submit(() -> {
+                long[] samples = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < end) {
+                    long start = System.nanoTime();
+                    try {
+                        if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    if (count == samples.length) {
+                        samples = Arrays.copyOf(samples, count * 2);
+                    }
+                    samples[count++] = System.nanoTime() - start;
+                }
+                return Arrays.copyOf(samples, count);
+            }));
+        }
+        long[] all = new long[0];
+        for (Future<long[]> future : latencies) {
+            long[] samples = future.get();
+            int from = all.length;
+            all = Arrays.copyOf(all, from + samples.length);
+            System.arraycopy(samples, 0, all, from, samples.length);
+        }
+        clients.shutdown();
+        Arrays.sort(all);
+        return new Result(all.length / (double) duration.toSeconds(), percentileMs(all, 0.50), percentileMs(all, 0.99),
+                all.length == 0 ? 1 : errors.get() / (double) all.length);
+    }
+
+    private static double percentileMs(long[] sorted, double percentile) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+
+    private static final class Result {
+        private final double throughput;
+        private final double p50Ms;
+        private final double p99Ms;
+        private final double errorRate;
+
+        private Result(double throughput, double p50Ms, double p99Ms, double errorRate) {
+            this.throughput = throughput;
+            this.p50Ms = p50Ms;
+            this.p99Ms = p99Ms;
+            this.errorRate = errorRate;
+        }
+    }
+}
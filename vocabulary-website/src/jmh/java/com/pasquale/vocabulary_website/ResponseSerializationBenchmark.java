@@ -0,0 +1,91 @@
+package com.pasquale.vocabulary_website;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pasquale.vocabulary_website.Entity.VocabularyItem;
+import com.pasquale.vocabulary_website.Utils.AnkiDatasetReader;
+import com.pasquale.vocabulary_website.Utils.VocabularyDeck;
+import com.pasquale.vocabulary_website.Utils.VocabularyJsonFragments;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Serializing one /new-words response: items copied and written by Jackson vs pre-encoded fragments spliced with the audio
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ResponseSerializationBenchmark {
+
+    @Param({"50000"})
+    int notes;
+
+    @Param({"10", "50"})
+    int count;
+
+    ObjectMapper mapper;
+    VocabularyDeck deck;
+    VocabularyJsonFragments fragments;
+    int[] ordinals;
+    String[] audio;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path directory = Files.createTempDirectory("serialization-bench");
+        Path apkg = SyntheticAnkiDeck.write(directory, notes);
+        VocabularyDeck.Builder builder = VocabularyDeck.builder(notes);
+        new AnkiDatasetReader().readVocabularyItems(apkg.toString(), builder::add);
+        deck = builder.build();
+        Files.delete(apkg);
+        Files.delete(directory);
+
+        // What Spring Boot configures for MVC
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        fragments = VocabularyJsonFragments.build(deck, mapper);
+        Random random = new Random(42);
+        ordinals = random.ints(count, 0, notes).toArray();
+        audio = new String[count];
+        for (int i = 0; i < count; i++) {
+            audio[i] = "https://apifree.forvo.com/audio/1k2j3h1i3e2m3a2n2i1m2h3e1l2g3d2a1o1m1j1l3h1o1j2b2e3h2b_3i1b2l3k3a1p2h1t1t1_" + i + ".mp3";
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public VocabularyJsonFragments build() throws IOException {
+        return VocabularyJsonFragments.build(deck, mapper);
+    }
+
+    // As before: the hand-out's items, enrichment's copies with the audio set, then Jackson over the list
+    @Benchmark
+    public byte[] jackson() throws IOException {
+        List<VocabularyItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            VocabularyItem copy = new VocabularyItem(deck.item(ordinals[i]));
+            copy.setAudio(audio[i]);
+            items.add(copy);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        mapper.writeValue(out, items);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] fragments() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        fragments.writeArray(ordinals, audio, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,105 @@
+package com.pasquale.vocabulary_website;
+
+import com.pasquale.vocabulary_website.Entity.VocabularyItem;
+import com.pasquale.vocabulary_website.Utils.UnseenWordSampler;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Old shuffle-and-scan selection in getNewWordsForUser vs the bitmap sampler, for one 10-word request
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SamplerBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int deckSize;
+
+    @Param({"0.1", "0.9"})
+    double seenFraction;
+
+    @Param({"10"})
+    int count;
+
+    List<VocabularyItem> allVocabulary;
+    Map<Long, Integer> noteOrdinals;
+    Set<Long> seenNoteIds;
+
+    @Setup
+    public void setUp() {
+        allVocabulary = new ArrayList<>(deckSize);
+        noteOrdinals = new HashMap<>(deckSize * 2);
+        seenNoteIds = new HashSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < deckSize; i++) {
+            VocabularyItem item = new VocabularyItem();
+            item.setNoteId(1_500_000_000_000L + i);
+            allVocabulary.add(item);
+            noteOrdinals.put(item.getNoteId(), i);
+            if (random.nextDouble() < seenFraction) {
+                seenNoteIds.add(item.getNoteId());
+            }
+        }
+    }
+
+    @Benchmark
+    public void shuffleScan(Blackhole bh) {
+        List<VocabularyItem> newWords = new ArrayList<>();
+        Set<Long> selectedNewIds = new HashSet<>();
+        List<VocabularyItem> availableVocabulary = new ArrayList<>(allVocabulary);
+        Collections.shuffle(availableVocabulary);
+        for (VocabularyItem item : availableVocabulary) {
+            if (newWords.size() >= count) {
+                break;
+            }
+            if (!seenNoteIds.contains(item.getNoteId()) && !selectedNewIds.contains(item.getNoteId())) {
+                newWords.add(item);
+                selectedNewIds.add(item.getNoteId());
+            }
+        }
+        bh.consume(newWords);
+    }
+
+    @Benchmark
+    public void bitmapSampler(Blackhole bh) {
+        BitSet seen = new BitSet(allVocabulary.size());
+        for (Long noteId : seenNoteIds) {
+            Integer ordinal = noteOrdinals.get(noteId);
+            if (ordinal != null) {
+                seen.set(ordinal);
+            }
+        }
+        int[] picked = UnseenWordSampler.sample(seen, allVocabulary.size(), count, ThreadLocalRandom.current());
+        List<VocabularyItem> newWords = new ArrayList<>(picked.length);
+        for (int ordinal : picked) {
+            newWords.add(allVocabulary.get(ordinal));
+        }
+        bh.consume(newWords);
+    }
+
+    // Sampler cost alone, with the seen bitmap already built (what a cached bitmap would pay)
+    @Benchmark
+    public void bitmapSamplerOnly(Blackhole bh, SeenBitmap state) {
+        BitSet seen = (BitSet) state.seen.clone();
+        bh.consume(UnseenWordSampler.sample(seen, deckSize, count, ThreadLocalRandom.current()));
+    }
+
+    @State(Scope.Thread)
+    public static class SeenBitmap {
+        BitSet seen;
+
+        @Setup
+        public void setUp(SamplerBenchmark benchmark) {
+            seen = new BitSet(benchmark.deckSize);
+            for (Long noteId : benchmark.seenNoteIds) {
+                seen.set(benchmark.noteOrdinals.get(noteId));
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.pasquale.vocabulary_website;
+
+import com.pasquale.vocabulary_website.Utils.AnkiDatasetReader;
+import com.pasquale.vocabulary_website.Utils.PronunciationLanguage;
+import com.pasquale.vocabulary_website.Utils.VocabularyDeck;
+import com.pasquale.vocabulary_website.Utils.VocabularySearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Search index over a synthetic deck: build time at load, and per-query latency for the three kinds of match
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SearchBenchmark {
+
+    @Param({"100000"})
+    int notes;
+
+    VocabularyDeck deck;
+    VocabularySearchIndex index;
+    // A term from the middle of the deck, its first letters, and the term with one letter dropped
+    String word;
+    String prefix;
+    String typo;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path directory = Files.createTempDirectory("search-bench");
+        Path apkg = SyntheticAnkiDeck.write(directory, notes);
+        VocabularyDeck.Builder builder = VocabularyDeck.builder(notes);
+        new AnkiDatasetReader().readVocabularyItems(apkg.toString(), builder::add);
+        deck = builder.build();
+        index = VocabularySearchIndex.build(deck, PronunciationLanguage.GERMAN);
+        word = deck.german(notes / 2);
+        String stem = PronunciationLanguage.GERMAN.cleanWord(word);
+        prefix = stem.substring(0, stem.length() - 2);
+        typo = stem.substring(0, 2) + stem.substring(3);
+        Files.delete(apkg);
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public VocabularySearchIndex build() {
+        return VocabularySearchIndex.build(deck, PronunciationLanguage.GERMAN);
+    }
+
+    @Benchmark
+    public int[] exact() {
+        return index.search(word, 10);
+    }
+
+    @Benchmark
+    public int[] prefix() {
+        return index.search(prefix, 10);
+    }
+
+    @Benchmark
+    public int[] fuzzy() {
+        return index.search(typo, 10);
+    }
+}
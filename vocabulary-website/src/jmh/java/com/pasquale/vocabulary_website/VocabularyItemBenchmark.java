@@ -0,0 +1,57 @@
+package com.pasquale.vocabulary_website;
+
+import com.pasquale.vocabulary_website.Entity.VocabularyItem;
+import com.pasquale.vocabulary_website.Utils.PronunciationLanguage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Per-word work around a hand-out: mapping a note read by readAnkiDataset, the copy enrichment makes,
+// and cleaning the German word into a Forvo lookup (article and parentheses stripped)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VocabularyItemBenchmark {
+
+    @Param({"die Straße", "der Schlüssel (pl. die Schlüssel)", "Übung"})
+    String german;
+
+    Map<String, Object> ankiNote;
+    VocabularyItem item;
+    PronunciationLanguage language;
+
+    @Setup
+    public void setUp() {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put(VocabularyItem.FIELD_GERMAN, german);
+        fields.put(VocabularyItem.FIELD_ENGLISH, "the word");
+        fields.put(VocabularyItem.FIELD_SAMPLE_SENTENCE, "Das ist ein Satz mit dem Wort.");
+        fields.put(VocabularyItem.FIELD_AUDIO, "[sound:wort.mp3]");
+        ankiNote = new LinkedHashMap<>();
+        ankiNote.put("noteId", SyntheticAnkiDeck.FIRST_NOTE_ID);
+        ankiNote.put("modelId", SyntheticAnkiDeck.MODEL_ID);
+        ankiNote.put("fields", fields);
+        item = new VocabularyItem(ankiNote);
+        language = PronunciationLanguage.GERMAN;
+    }
+
+    @Benchmark
+    public VocabularyItem fromAnkiNote() {
+        return new VocabularyItem(ankiNote);
+    }
+
+    @Benchmark
+    public VocabularyItem copy() {
+        return new VocabularyItem(item);
+    }
+
+    @Benchmark
+    public String cleanWord() {
+        return language.cleanWord(german);
+    }
+}
@@ -2,24 +2,32 @@ package com.pasquale.vocabulary_website.Auth;
 
 import com.pasquale.vocabulary_website.Entity.ApplicationUser;
 import com.pasquale.vocabulary_website.Repository.UserRepository;
+import com.pasquale.vocabulary_website.Service.PasswordHashingBusyException;
+import com.pasquale.vocabulary_website.Service.PasswordHashingService;
 import com.pasquale.vocabulary_website.Service.UserDetailsImpl;
 import com.pasquale.vocabulary_website.Utils.JwtResponse;
 import com.pasquale.vocabulary_website.Utils.LoginRequest;
+import com.pasquale.vocabulary_website.Utils.MessageResponse;
 import com.pasquale.vocabulary_website.Utils.SignupRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @CrossOrigin(origins = "http://127.0.0.1:5500",maxAge = 3600)
 @RestController
 @RequestMapping("api/auth")
 public class AuthController {
+    private static final String RETRY_AFTER_SECONDS = "1";
+
     @Autowired
     AuthenticationManager authenticationManager;
 
@@ -32,34 +40,46 @@ public class AuthController {
     @Autowired
     JwtUtils jwtUtils;
 
-    @PostMapping("/signin")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest){
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
-        );
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String token = jwtUtils.generateToken(authentication);
-        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-        return ResponseEntity.ok(new JwtResponse(token, userDetails.getId(),userDetails.getUsername(),userDetails.getEmail()));
+    @Autowired
+    PasswordHashingService passwordHashingService;
 
+    // Both endpoints hand their BCrypt work to the hashing pool and return, freeing the request thread until it's done
+    @PostMapping("/signin")
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest){
+        return passwordHashingService.submit(() -> {
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
+            );
+            String token = jwtUtils.generateToken(authentication);
+            UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+            return ResponseEntity.ok(new JwtResponse(token, userDetails.getId(),userDetails.getUsername(),userDetails.getEmail()));
+        });
     }
 
     @PostMapping("/signup")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signupRequest){
+    public CompletableFuture<ResponseEntity<?>> registerUser(@Valid @RequestBody SignupRequest signupRequest){
         if(userRepository.existsByUsername(signupRequest.getUsername())){
-            return ResponseEntity.badRequest().body("Username is already in use");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Username is already in use"));
         }
         if(userRepository.existsByEmail(signupRequest.getEmail())){
-            return ResponseEntity.badRequest().body("Email is already in use");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Email is already in use"));
         }
 
-        ApplicationUser user = new ApplicationUser();
-        user.setUsername(signupRequest.getUsername());
-        user.setPassword(passwordEncoder.encode(signupRequest.getPassword()));
-        user.setEmail(signupRequest.getEmail());
+        return passwordHashingService.submit(() -> {
+            ApplicationUser user = new ApplicationUser();
+            user.setUsername(signupRequest.getUsername());
+            user.setPassword(passwordEncoder.encode(signupRequest.getPassword()));
+            user.setEmail(signupRequest.getEmail());
 
-        userRepository.save(user);
-        return ResponseEntity.ok(user);
+            userRepository.save(user);
+            // Not the entity: it carries the password hash and server-side state
+            return ResponseEntity.ok(new MessageResponse("User registered successfully"));
+        });
     }
 
-}
\ No newline at end of file
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<String> hashingBusy(PasswordHashingBusyException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(e.getMessage());
+    }
+}
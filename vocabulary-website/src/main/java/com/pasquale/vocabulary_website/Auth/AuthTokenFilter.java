@@ -1,8 +1,10 @@
 package com.pasquale.vocabulary_website.Auth;
 
 import com.pasquale.vocabulary_website.Service.UserService;
-import com.pasquale.vocabulary_website.Auth.JwtUtils;
-
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,6 +19,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
@@ -25,22 +28,55 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
+    // Time this filter adds to a request, by outcome: no token, authenticated from the token's claims,
+    // authenticated with a user lookup (tokens without the user id), or not authenticated
+    private Timer noTokenTimer;
+    private Timer tokenTimer;
+    private Timer lookupTimer;
+    private Timer invalidTimer;
+
+    @PostConstruct
+    void init() {
+        noTokenTimer = timer("none");
+        tokenTimer = timer("token");
+        lookupTimer = timer("lookup");
+        invalidTimer = timer("invalid");
+    }
+
+    private Timer timer(String outcome) {
+        return Timer.builder("auth.token.filter").tag("outcome", outcome).register(meterRegistry);
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        Timer timer = noTokenTimer;
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userService.loadUserByUsername(username);
+            Claims claims = jwt == null ? null : jwtUtils.parseJwtToken(jwt);
+            if (jwt != null) {
+                timer = claims == null ? invalidTimer : tokenTimer;
+            }
+            if (claims != null) {
+                // Tokens carry the user id and email: no database lookup unless the token predates that
+                UserDetails userDetails = jwtUtils.getUserFromClaims(claims);
+                if (userDetails == null) {
+                    timer = lookupTimer;
+                    userDetails = userService.loadUserByUsername(claims.getSubject());
+                }
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         }catch (Exception e){
+            timer = invalidTimer;
             logger.error(e.getMessage());
         }
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
         filterChain.doFilter(request, response);
     }
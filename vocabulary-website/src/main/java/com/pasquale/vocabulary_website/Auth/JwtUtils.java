@@ -2,42 +2,63 @@ package com.pasquale.vocabulary_website.Auth;
 
 import com.pasquale.vocabulary_website.Service.UserDetailsImpl;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    // Claims carried next to the username, so a request can be authenticated from the token alone
+    static final String USER_ID_CLAIM = "uid";
+    static final String EMAIL_CLAIM = "email";
+    // Granted authorities; a role taken away in the database still holds until the token expires
+    static final String ROLES_CLAIM = "roles";
+
     @Value("${app.jwtSecret}")
     private String jwtSecret;
     @Value("${app.jwtExpirationMs}")
     private int jwtExpirationMs;
 
+    // Built once: the parser and its key are immutable and thread-safe
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        SecretKeySpec key = new SecretKeySpec(Decoders.BASE64.decode(jwtSecret), SignatureAlgorithm.HS512.getJcaName());
+        parser = Jwts.parserBuilder().setSigningKey(key).build();
+    }
+
     public String generateToken(Authentication auth){
         UserDetailsImpl userPrincipal = (UserDetailsImpl) auth.getPrincipal();
 
         return Jwts.builder()
                 .setSubject(userPrincipal.getUsername())
+                .claim(USER_ID_CLAIM, userPrincipal.getId())
+                .claim(EMAIL_CLAIM, userPrincipal.getEmail())
+                .claim(ROLES_CLAIM, userPrincipal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime()+ jwtExpirationMs))
                 .signWith(SignatureAlgorithm.HS512, jwtSecret)
                 .compact();
     }
 
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
-    }
-
-    public boolean validateJwtToken(String authToken) {
+    // Verifies the token and returns its claims, or null if it is not valid; the only place a token is parsed
+    public Claims parseJwtToken(String authToken) {
         try{
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-            return true;
+            return parser.parseClaimsJws(authToken).getBody();
         }catch (SignatureException e){
             logger.error("Invalid JWT signature");
         }catch (MalformedJwtException e){
@@ -49,6 +70,22 @@ public class JwtUtils {
         }catch (IllegalArgumentException e){
             logger.error("JWT claims string is empty.");
         }
-        return false;
+        return null;
+    }
+
+    // The principal the token describes, or null for tokens issued before they carried the user id
+    public UserDetailsImpl getUserFromClaims(Claims claims) {
+        Integer id = claims.get(USER_ID_CLAIM, Integer.class);
+        if (id == null) {
+            return null;
+        }
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (roles != null) {
+            for (Object role : roles) {
+                authorities.add(new SimpleGrantedAuthority(role.toString()));
+            }
+        }
+        return new UserDetailsImpl(id, claims.getSubject(), claims.get(EMAIL_CLAIM, String.class), null, authorities);
     }
 }
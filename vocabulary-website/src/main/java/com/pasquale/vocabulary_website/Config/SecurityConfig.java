@@ -3,8 +3,11 @@ package com.pasquale.vocabulary_website.Config;
 
 import com.pasquale.vocabulary_website.Auth.AuthEntryPointJwt;
 import com.pasquale.vocabulary_website.Auth.AuthTokenFilter;
+import com.pasquale.vocabulary_website.Service.UserDetailsImpl;
 import com.pasquale.vocabulary_website.Service.UserService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -37,6 +40,10 @@ public class SecurityConfig {
     @Autowired
     private AuthEntryPointJwt unauthorizedHandler;
 
+    // Each step doubles the cost of every sign-in; existing hashes keep verifying at the cost they were made with
+    @Value("${app.bcrypt.strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public AuthTokenFilter authTokenFilter() {
         return new AuthTokenFilter();
@@ -57,7 +64,7 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
 
@@ -73,6 +80,15 @@ public class SecurityConfig {
 
                     auth.requestMatchers("/api/auth/**").permitAll();
                     auth.requestMatchers("/api/test/**").permitAll();
+                    // Liveness/readiness probes come without a token
+                    auth.requestMatchers("/actuator/health", "/actuator/health/**").permitAll();
+                    // Meter names and tags describe users, decks and quota; scrape with an admin's token
+                    auth.requestMatchers("/actuator/metrics", "/actuator/metrics/**", "/actuator/prometheus")
+                            .hasRole(UserDetailsImpl.ADMIN_ROLE);
+                    // The request was authorized when it started; its async completion carries no token to check again
+                    auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll();
+                    // Reloads, migrations and status of the whole site: signup is open, so being signed in isn't enough
+                    auth.requestMatchers("/api/admin/**").hasRole(UserDetailsImpl.ADMIN_ROLE);
                     auth.anyRequest().authenticated();
                 });
 
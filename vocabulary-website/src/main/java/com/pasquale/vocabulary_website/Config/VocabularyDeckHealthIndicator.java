@@ -0,0 +1,46 @@
+package com.pasquale.vocabulary_website.Config;
+
+import com.pasquale.vocabulary_website.Service.VocabularyService;
+import com.pasquale.vocabulary_website.Utils.DeckStatus;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class VocabularyDeckHealthIndicator implements HealthIndicator {
+    private final VocabularyService vocabularyService;
+
+    public VocabularyDeckHealthIndicator(VocabularyService vocabularyService) {
+        this.vocabularyService = vocabularyService;
+    }
+
+    // UP once every deck is in; DOWN if any deck failed its first load, OUT_OF_SERVICE while one is still loading
+    @Override
+    public Health health() {
+        List<DeckStatus> statuses = vocabularyService.getDeckStatus();
+        Map<String, Object> decks = new LinkedHashMap<>();
+        boolean failed = false;
+        boolean loading = false;
+        for (DeckStatus status : statuses) {
+            Map<String, Object> details = new LinkedHashMap<>();
+            if (status.isReady()) {
+                details.put("version", status.getVersion());
+                details.put("notes", status.getNotes());
+                details.put("reloading", status.isReloading());
+            } else if (status.getLoadError() != null) {
+                details.put("error", status.getLoadError());
+                failed = true;
+            } else {
+                details.put("loading", true);
+                loading = true;
+            }
+            decks.put(status.getDeck(), details);
+        }
+        Health.Builder health = failed ? Health.down() : loading ? Health.outOfService() : Health.up();
+        return health.withDetail("decks", decks).build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.pasquale.vocabulary_website.Config;
+
+import com.pasquale.vocabulary_website.Entity.VocabularyItem;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decks served by this instance, e.g.
+ * <pre>
+ * vocabulary.decks.spanish.path=/data/spanish.apkg
+ * vocabulary.decks.spanish.language=es
+ * vocabulary.decks.spanish.country=ESP
+ * vocabulary.decks.spanish.articles=el,la,los,las,un,una
+ * vocabulary.decks.spanish.term-field=Spanish
+ * </pre>
+ * Without any decks configured, a single German deck named "german" is read from anki.dataset.path.
+ */
+@Component
+@ConfigurationProperties(prefix = "vocabulary")
+@Getter
+@Setter
+public class VocabularyDecksProperties {
+    private Map<String, Deck> decks = new LinkedHashMap<>();
+    // Deck used when a request doesn't name one; defaults to the first configured deck
+    private String defaultDeck;
+
+    @Getter
+    @Setter
+    public static class Deck {
+        private String path;
+        private String language = "de";
+        private String country;
+        // Leading articles to strip before the Forvo lookup; German ones when unset and the language is "de"
+        private List<String> articles;
+        private String termField = VocabularyItem.FIELD_GERMAN;
+        private String translationField = VocabularyItem.FIELD_ENGLISH;
+        private String sampleSentenceField = VocabularyItem.FIELD_SAMPLE_SENTENCE;
+        private String audioField = VocabularyItem.FIELD_AUDIO;
+    }
+}
@@ -0,0 +1,40 @@
+package com.pasquale.vocabulary_website.Config;
+
+import com.pasquale.vocabulary_website.Utils.VocabularyItemsJson;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+// Writes pre-encoded vocabulary JSON straight to the response; Spring Boot puts converter beans ahead of Jackson
+@Component
+public class VocabularyItemsJsonConverter extends AbstractHttpMessageConverter<VocabularyItemsJson> {
+
+    public VocabularyItemsJsonConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return VocabularyItemsJson.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected VocabularyItemsJson readInternal(Class<? extends VocabularyItemsJson> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Vocabulary JSON is write-only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(VocabularyItemsJson json, HttpOutputMessage outputMessage) throws IOException {
+        json.writeTo(outputMessage.getBody());
+    }
+}
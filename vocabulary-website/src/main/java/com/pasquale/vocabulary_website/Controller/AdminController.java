@@ -0,0 +1,66 @@
+package com.pasquale.vocabulary_website.Controller;
+
+import com.pasquale.vocabulary_website.Service.ProgressMigration;
+import com.pasquale.vocabulary_website.Service.PronunciationPrefetcher;
+import com.pasquale.vocabulary_website.Service.VocabularyService;
+import com.pasquale.vocabulary_website.Utils.DeckStatus;
+import com.pasquale.vocabulary_website.Utils.PrefetchStatus;
+import com.pasquale.vocabulary_website.Utils.ProgressMigrationStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class AdminController {
+    @Autowired
+    private PronunciationPrefetcher pronunciationPrefetcher;
+
+    @Autowired
+    private VocabularyService vocabularyService;
+
+    @Autowired
+    private ProgressMigration progressMigration;
+
+    @GetMapping("/prefetch")
+    public ResponseEntity<PrefetchStatus> getPrefetchStatus() {
+        return ResponseEntity.ok(pronunciationPrefetcher.getStatus());
+    }
+
+    @GetMapping("/deck")
+    public ResponseEntity<List<DeckStatus>> getDeckStatus() {
+        return ResponseEntity.ok(vocabularyService.getDeckStatus());
+    }
+
+    // Starts a background reload of one deck, or of all of them; poll GET /deck for the new versions
+    @PostMapping("/reload")
+    public ResponseEntity<List<DeckStatus>> reloadDeck(@RequestParam(required = false) String deck) {
+        if (deck == null) {
+            vocabularyService.reload();
+        } else if (vocabularyService.hasDeck(deck)) {
+            vocabularyService.reload(deck);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.accepted().body(vocabularyService.getDeckStatus());
+    }
+
+    // Starts packing every remaining user's user_words into a progress row in the background; poll GET for progress
+    @PostMapping("/progress/migrate")
+    public ResponseEntity<ProgressMigrationStatus> migrateProgress() {
+        if (!progressMigration.isAvailable()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        progressMigration.start();
+        return ResponseEntity.accepted().body(progressMigration.getStatus());
+    }
+
+    @GetMapping("/progress/migrate")
+    public ResponseEntity<ProgressMigrationStatus> getProgressMigrationStatus() {
+        return ResponseEntity.ok(progressMigration.getStatus());
+    }
+}
@@ -0,0 +1,59 @@
+package com.pasquale.vocabulary_website.Controller;
+
+import com.pasquale.vocabulary_website.Service.ReviewService;
+import com.pasquale.vocabulary_website.Service.UserDetailsImpl;
+import com.pasquale.vocabulary_website.Service.VocabularyService;
+import com.pasquale.vocabulary_website.Utils.DueCard;
+import com.pasquale.vocabulary_website.Utils.DueCardsResponse;
+import com.pasquale.vocabulary_website.Utils.ReviewRequest;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/review")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ReviewController {
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private VocabularyService vocabularyService;
+
+    // Cards due now, earliest first; follow nextCursor for the rest of the queue
+    @GetMapping("/due")
+    public ResponseEntity<DueCardsResponse> getDueCards(@RequestParam(defaultValue = "20") int limit,
+                                                        @RequestParam(required = false) String cursor) {
+        if (!vocabularyService.isDeckReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS).build();
+        }
+        try {
+            return ResponseEntity.ok(reviewService.getDueCards(currentUserId(), cursor, limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @PostMapping("/grade")
+    public ResponseEntity<DueCard> grade(@Valid @RequestBody ReviewRequest request) {
+        return reviewService.grade(currentUserId(), request.getNoteId(), request.getGrade())
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Word was never given to this user."));
+    }
+
+    private static int currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || !(auth.getPrincipal() instanceof UserDetailsImpl userDetails)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not authenticated.");
+        }
+        return userDetails.getId();
+    }
+}
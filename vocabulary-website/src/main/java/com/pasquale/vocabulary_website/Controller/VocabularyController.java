@@ -2,54 +2,223 @@ package com.pasquale.vocabulary_website.Controller;
 
 import com.pasquale.vocabulary_website.Entity.ApplicationUser;
 import com.pasquale.vocabulary_website.Entity.VocabularyItem;
-import com.pasquale.vocabulary_website.Repository.UserRepository;
 import com.pasquale.vocabulary_website.Service.UserDetailsImpl;
 import com.pasquale.vocabulary_website.Service.UserService;
+import com.pasquale.vocabulary_website.Service.VocabularyNotReadyException;
 import com.pasquale.vocabulary_website.Service.VocabularyService;
+import com.pasquale.vocabulary_website.Utils.DeckDownload;
+import com.pasquale.vocabulary_website.Utils.NewWordEvent;
+import com.pasquale.vocabulary_website.Utils.VocabularyItemsJson;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/vocabulary")
 @CrossOrigin(origins = "*",  maxAge = 3600)
 public class VocabularyController {
+    // Seconds a client should wait before retrying while the deck is loading
+    private static final String RETRY_AFTER_SECONDS = "5";
+    private static final int MAX_SEARCH_RESULTS = 50;
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final String PAGE_SIZE_HEADER = "X-Page-Size";
+    private static final String PAGE_COUNT_HEADER = "X-Page-Count";
+
     @Autowired
     private VocabularyService vocabularyService;
 
 
     @Autowired
-    private UserRepository userRepository;
+    private UserService userService;
+
+    // Written from the deck's pre-encoded JSON (VocabularyItemsJsonConverter); the body is the same list of items
+    @GetMapping(value = "/new-words", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<VocabularyItemsJson> getNewWords(@RequestParam(defaultValue = "10") int count,
+                                                            @RequestParam(required = false) String deck) {
+        String deckName = deck == null || deck.isBlank() ? vocabularyService.getDefaultDeck() : deck;
+        if (!vocabularyService.hasDeck(deckName)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown deck: " + deckName);
+        }
+        // Answer before touching the database while there is no deck to draw from
+        if (!vocabularyService.isDeckReady(deckName)) {
+            return notReady();
+        }
+        ApplicationUser currentUser = currentUser();
+
+        try {
+            return ResponseEntity.ok(vocabularyService.getNewWordsJsonForUser(currentUser, deckName, count));
+        }catch (VocabularyNotReadyException e) {
+            return notReady();
+        }catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error.");
+        }
+
+    }
+
+    // The same hand-out as /new-words, streamed as NDJSON: every word at once with the audio known so far, then an
+    // "audio" event for each word whose Forvo pronunciation arrives later. A client that disconnects cancels the lookups.
+    @GetMapping(value = "/new-words/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<NewWordEvent>> streamNewWords(@RequestParam(defaultValue = "10") int count,
+                                                             @RequestParam(required = false) String deck) {
+        String deckName = deck == null || deck.isBlank() ? vocabularyService.getDefaultDeck() : deck;
+        if (!vocabularyService.hasDeck(deckName)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown deck: " + deckName);
+        }
+        if (!vocabularyService.isDeckReady(deckName)) {
+            return notReady();
+        }
+        ApplicationUser currentUser = currentUser();
+
+        try {
+            return ResponseEntity.ok(vocabularyService.streamNewWordsForUser(currentUser, deckName, count));
+        }catch (VocabularyNotReadyException e) {
+            return notReady();
+        }catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error.");
+        }
+    }
+
+    // Server-Sent Events flavour of the stream, named after the event type
+    @GetMapping(value = "/new-words/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<ServerSentEvent<NewWordEvent>>> streamNewWordsAsEvents(@RequestParam(defaultValue = "10") int count,
+                                                                                      @RequestParam(required = false) String deck) {
+        ResponseEntity<Flux<NewWordEvent>> stream = streamNewWords(count, deck);
+        if (stream.getBody() == null) {
+            return ResponseEntity.status(stream.getStatusCode()).headers(stream.getHeaders()).build();
+        }
+        return ResponseEntity.ok(stream.getBody()
+                .map(event -> ServerSentEvent.builder(event).event(event.getType()).build()));
+    }
+
+    /**
+     * The whole current deck, or one page of it, for offline study. Nothing is handed out or recorded. Bodies are
+     * gzipped once per deck version and page; the strong ETag changes only when the deck's content does, so a
+     * client revalidating with If-None-Match gets 304 without a body.
+     */
+    @GetMapping("/deck")
+    public ResponseEntity<StreamingResponseBody> downloadDeck(@RequestParam(required = false) String deck,
+                                          @RequestParam(required = false) Integer page,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String deckName = deck == null || deck.isBlank() ? vocabularyService.getDefaultDeck() : deck;
+        if (!vocabularyService.hasDeck(deckName)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown deck: " + deckName);
+        }
+        DeckDownload download;
+        try {
+            download = vocabularyService.getDeckDownload(deckName);
+        } catch (VocabularyNotReadyException e) {
+            return notReady();
+        }
+        int pageNumber = page == null ? DeckDownload.WHOLE_DECK : page;
+        if (!download.hasPage(pageNumber)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No page " + page + " in deck " + deckName);
+        }
 
-    @GetMapping("/new-words")
-    public ResponseEntity<List<VocabularyItem>> getNewWords(@RequestParam(defaultValue = "10") int count) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = download.etag(pageNumber, gzip);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        // Per user, and always revalidated: the ETag makes that a 304 until the deck changes
+        headers.setCacheControl(CacheControl.noCache().cachePrivate());
+        headers.set(TOTAL_COUNT_HEADER, Integer.toString(download.size()));
+        headers.set(PAGE_SIZE_HEADER, Integer.toString(download.getPageSize()));
+        headers.set(PAGE_COUNT_HEADER, Integer.toString(download.pageCount()));
+        if (matchesAny(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).eTag(etag).build();
+        }
+
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            byte[] compressed = download.gzipped(pageNumber);
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            headers.setContentLength(compressed.length);
+            return ResponseEntity.ok().headers(headers).eTag(etag).body(out -> out.write(compressed));
+        }
+        return ResponseEntity.ok().headers(headers).eTag(etag).body(out -> download.write(pageNumber, out));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<VocabularyItem>> search(@RequestParam("q") String query,
+                                                       @RequestParam(defaultValue = "10") int limit,
+                                                       @RequestParam(required = false) String deck) {
+        if (query.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Query must not be empty.");
+        }
+        String deckName = deck == null || deck.isBlank() ? vocabularyService.getDefaultDeck() : deck;
+        if (!vocabularyService.hasDeck(deckName)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown deck: " + deckName);
+        }
+        try {
+            return ResponseEntity.ok(vocabularyService.search(deckName, query, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS))));
+        } catch (VocabularyNotReadyException e) {
+            return notReady();
+        }
+    }
+
+    private ApplicationUser currentUser() {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth == null || !auth.isAuthenticated() || !(auth.getPrincipal() instanceof UserDetailsImpl)) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not authenticated.");
         }
 
         UserDetailsImpl userDetails = (UserDetailsImpl) auth.getPrincipal();
-
         try {
-            ApplicationUser currentUser = userRepository.findByUsername(userDetails.getUsername()).orElseThrow(() -> new UsernameNotFoundException("User not found with this username"));
-
-            List<VocabularyItem> newWords = vocabularyService.getNewWordsForUser(currentUser, count );
-            return ResponseEntity.ok(newWords);
-        }catch (UsernameNotFoundException e) {
+            // From the short-lived user cache; the principal itself came from the token without a lookup
+            return userService.getUser(userDetails.getId());
+        } catch (UsernameNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found with this username.");
+        }
+    }
 
-        }catch (Exception e) {
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error.");
+    // If-None-Match compares weakly: a W/ prefix doesn't matter
+    private static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(etag)) {
+                return true;
+            }
         }
+        return false;
+    }
 
+    // gzip listed in Accept-Encoding without q=0
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].trim().replace(" ", "");
+                    if (parameter.matches("q=0(\\.0*)?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
     }
 
+    private static <T> ResponseEntity<T> notReady() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS).build();
+    }
 }
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.List;
 
@@ -26,6 +27,16 @@ public class ApplicationUser{
     @Column(unique = true, nullable = false)
     private String email;
 
+    // Bumped in the same transaction as every batch of words handed out, so cached seen sets can tell they're stale
+    @Column(name = "words_version", nullable = false)
+    @ColumnDefault("0")
+    private long wordsVersion;
+
+    // Grants the ADMIN role that /api/admin/** requires; never set by signup, only in the database
+    @Column(name = "admin", nullable = false)
+    @ColumnDefault("false")
+    private boolean admin;
+
 
     public ApplicationUser(int id,String email, String username, String password) {
         this.id = id;
@@ -0,0 +1,31 @@
+package com.pasquale.vocabulary_website.Entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Forvo lookup result for a cleaned word; a null URL means Forvo had no pronunciation
+@Entity
+@Table(name = "pronunciations")
+@Getter
+@Setter
+public class Pronunciation {
+    // "lang:word" as built by PronunciationLanguage.key, so the same spelling in two decks' languages stays apart
+    @Id
+    @Column(name = "word")
+    private String word;
+    @Column(name = "mp3_url", length = 1024)
+    private String mp3Url;
+    @Column(name = "resolved_at", nullable = false)
+    private LocalDateTime resolvedAt;
+
+    public Pronunciation() {}
+
+    public Pronunciation(String word, String mp3Url, LocalDateTime resolvedAt) {
+        this.word = word;
+        this.mp3Url = mp3Url;
+        this.resolvedAt = resolvedAt;
+    }
+}
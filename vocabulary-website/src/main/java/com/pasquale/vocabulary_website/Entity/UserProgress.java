@@ -0,0 +1,44 @@
+package com.pasquale.vocabulary_website.Entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Every note a user has been handed, across all decks, as one NoteIdSet, as of one value of the user's
+// words_version. Only kept with vocabulary.progress.compact; a row whose version is behind the user's is stale
+@Entity
+@Table(name = "user_progress")
+@Getter
+@Setter
+public class UserProgress {
+    @Id
+    @Column(name = "user_id")
+    private int userId;
+
+    // bytea on PostgreSQL; the length only matters to databases that size binary columns
+    @Column(name = "seen_notes", nullable = false, length = 64 * 1024 * 1024)
+    private byte[] seenNotes;
+
+    @Column(name = "note_count", nullable = false)
+    private int noteCount;
+
+    // The user's words_version this set is complete for
+    @Column(name = "words_version", nullable = false)
+    private long wordsVersion;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public UserProgress() {
+    }
+
+    public UserProgress(int userId, byte[] seenNotes, int noteCount, long wordsVersion) {
+        this.userId = userId;
+        this.seenNotes = seenNotes;
+        this.noteCount = noteCount;
+        this.wordsVersion = wordsVersion;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
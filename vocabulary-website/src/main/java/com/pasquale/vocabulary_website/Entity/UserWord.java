@@ -3,15 +3,22 @@ package com.pasquale.vocabulary_website.Entity;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "user_words")
+@Table(name = "user_words", indexes = {
+        // Serves the due queue: one user's cards in (due_at, id) order, read by keyset from the last card returned
+        @Index(name = "idx_user_words_user_due", columnList = "user_id, due_at, id"),
+        @Index(name = "idx_user_words_user_note", columnList = "user_id, anki_note_id")
+})
 @Getter
 @Setter
 public class UserWord {
+    public static final double INITIAL_EASE_FACTOR = 2.5;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long id;
@@ -23,13 +30,31 @@ public class UserWord {
     @Column(name = "added_at")
     private LocalDateTime created;
 
+    // SM-2 review state. A handed-out word is due for its first review right away.
+    // Defaults let the columns be added to a table that already has rows
+    @Column(name = "ease_factor")
+    @ColumnDefault("2.5")
+    private double easeFactor = INITIAL_EASE_FACTOR;
+    @Column(name = "interval_days")
+    @ColumnDefault("0")
+    private int intervalDays;
+    @Column(name = "repetitions")
+    @ColumnDefault("0")
+    private int repetitions;
+    @Column(name = "due_at")
+    private LocalDateTime dueAt;
+    @Column(name = "last_reviewed_at")
+    private LocalDateTime lastReviewedAt;
+
     public UserWord() {
         this.created = LocalDateTime.now();
+        this.dueAt = created;
     }
 
     public UserWord(ApplicationUser user, Long ankiNoteId) {
         this.user = user;
         this.ankiNoteId = ankiNoteId;
         this.created = LocalDateTime.now();
+        this.dueAt = created;
     }
 }
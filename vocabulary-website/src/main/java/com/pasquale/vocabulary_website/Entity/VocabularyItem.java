@@ -10,6 +10,12 @@ import java.util.Map;
 @Getter
 @Setter
 public class VocabularyItem {
+    // Anki field names of the German deck's note type
+    public static final String FIELD_GERMAN = "German";
+    public static final String FIELD_ENGLISH = "English";
+    public static final String FIELD_SAMPLE_SENTENCE = "Sample sentence";
+    public static final String FIELD_AUDIO = "Audio";
+
     private Long noteId;
     private long modelId;
     private String german;
@@ -19,6 +25,15 @@ public class VocabularyItem {
 
     public VocabularyItem() {}
 
+    public VocabularyItem(Long noteId, long modelId, String german, String english, String sampleSentence, String audio) {
+        this.noteId = noteId;
+        this.modelId = modelId;
+        this.german = german;
+        this.english = english;
+        this.sampleSentence = sampleSentence;
+        this.audio = audio;
+    }
+
     public VocabularyItem(Map<String, Object> ankiNote){
         this.noteId = (Long) ankiNote.getOrDefault("noteId", 0L);
         this.modelId = (Long) ankiNote.getOrDefault("modelId", 0L);
@@ -26,11 +41,11 @@ public class VocabularyItem {
         if (ankiNote.get("fields") instanceof Map) {
             @SuppressWarnings("unchecked")
                     Map<String, String> fields = (Map<String, String>) ankiNote.get("fields");
-            this.german = fields.getOrDefault("German", "");
-            this.english = fields.getOrDefault("English", "");
-            this.audio = fields.getOrDefault("Audio", "");
+            this.german = fields.getOrDefault(FIELD_GERMAN, "");
+            this.english = fields.getOrDefault(FIELD_ENGLISH, "");
+            this.audio = fields.getOrDefault(FIELD_AUDIO, "");
 
-            this.sampleSentence = fields.getOrDefault("Sample sentence", "");
+            this.sampleSentence = fields.getOrDefault(FIELD_SAMPLE_SENTENCE, "");
         }
     }
 
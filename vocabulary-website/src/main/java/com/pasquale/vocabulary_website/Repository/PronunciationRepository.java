@@ -0,0 +1,13 @@
+package com.pasquale.vocabulary_website.Repository;
+
+import com.pasquale.vocabulary_website.Entity.Pronunciation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Set;
+
+public interface PronunciationRepository extends JpaRepository<Pronunciation, String> {
+
+    @Query("SELECT p.word FROM Pronunciation p")
+    Set<String> findAllWords();
+}
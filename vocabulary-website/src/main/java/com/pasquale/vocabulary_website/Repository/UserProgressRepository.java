@@ -0,0 +1,27 @@
+package com.pasquale.vocabulary_website.Repository;
+
+import com.pasquale.vocabulary_website.Entity.UserProgress;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface UserProgressRepository extends JpaRepository<UserProgress, Integer> {
+
+    // Just the packed set, without loading the entity into the persistence context; empty unless it is current
+    @Query("SELECT p.seenNotes FROM UserProgress p WHERE p.userId = :userId AND p.wordsVersion = :wordsVersion")
+    Optional<byte[]> findSeenNotes(int userId, long wordsVersion);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM UserProgress p WHERE p.userId = :userId")
+    Optional<UserProgress> findForUpdate(int userId);
+
+    // Users with words but no current progress row: never migrated, or handed words while the mode was off
+    @Query("SELECT u.id FROM ApplicationUser u WHERE EXISTS (SELECT 1 FROM UserWord uw WHERE uw.user = u)"
+            + " AND NOT EXISTS (SELECT 1 FROM UserProgress p WHERE p.userId = u.id AND p.wordsVersion = u.wordsVersion)"
+            + " ORDER BY u.id")
+    List<Integer> findUnmigratedUserIds();
+}
@@ -1,7 +1,11 @@
 package com.pasquale.vocabulary_website.Repository;
 
 import com.pasquale.vocabulary_website.Entity.ApplicationUser;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import javax.swing.text.html.Option;
@@ -11,4 +15,26 @@ public interface UserRepository  extends JpaRepository<ApplicationUser, Long>{
     Optional<ApplicationUser> findByUsername(String username);
     Boolean existsByUsername(String username);
     Boolean existsByEmail(String email);
+
+    // findById takes the repository's Long id type, which doesn't match the entity's int id
+    @Query("SELECT u FROM ApplicationUser u WHERE u.id = :userId")
+    Optional<ApplicationUser> findByUserId(int userId);
+
+    @Query("SELECT u.wordsVersion FROM ApplicationUser u WHERE u.id = :userId")
+    long findWordsVersion(int userId);
+
+    // Locks the user's row until the transaction ends, so concurrent hand-outs for the same user sample one
+    // after the other instead of from the same seen set
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u.wordsVersion FROM ApplicationUser u WHERE u.id = :userId")
+    long findWordsVersionForUpdate(int userId);
+
+    @Modifying
+    @Query("UPDATE ApplicationUser u SET u.wordsVersion = u.wordsVersion + 1 WHERE u.id = :userId")
+    int incrementWordsVersion(int userId);
+
+    // The same row lock, for work that must not interleave with a hand-out but isn't one
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u.id FROM ApplicationUser u WHERE u.id = :userId")
+    Optional<Integer> lockById(int userId);
 }
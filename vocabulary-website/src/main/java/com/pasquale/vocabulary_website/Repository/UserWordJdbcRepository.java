@@ -0,0 +1,16 @@
+package com.pasquale.vocabulary_website.Repository;
+
+import com.pasquale.vocabulary_website.Entity.UserWord;
+
+import java.util.List;
+import java.util.function.LongConsumer;
+
+// Plain JDBC paths for the hot user_words operations, mixed into UserWordRepository
+public interface UserWordJdbcRepository {
+
+    // Inserts the words with one multi-row INSERT per chunk; ids are left to the database and not set on the words
+    int insertAll(List<UserWord> words);
+
+    // Streams the note ids the user has been given without collecting them into boxed Longs
+    void forEachAnkiNoteId(int userId, LongConsumer action);
+}
@@ -0,0 +1,77 @@
+package com.pasquale.vocabulary_website.Repository;
+
+import com.pasquale.vocabulary_website.Entity.UserWord;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * user_words ids come from an IDENTITY column, which stops Hibernate from batching inserts: saveAll sends
+ * one INSERT per word. Handing out words goes through here instead, as one statement per chunk of rows.
+ * Rebuilding a user's seen set streams their note ids from here rather than materializing a Set of entities' ids.
+ * Runs on the JPA transaction's connection, so it commits or rolls back with the rest of the request.
+ */
+class UserWordJdbcRepositoryImpl implements UserWordJdbcRepository {
+    // 7 parameters per row keeps a full chunk far below the PostgreSQL limit of 65535 bind parameters
+    static final int ROWS_PER_STATEMENT = 500;
+    private static final String INSERT = "INSERT INTO user_words"
+            + " (user_id, anki_note_id, added_at, ease_factor, interval_days, repetitions, due_at) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    // One sample per insertAll call: its latency, and how many rows it wrote
+    private final Timer insertTimer;
+    private final DistributionSummary insertRows;
+
+    UserWordJdbcRepositoryImpl(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.insertTimer = Timer.builder("vocabulary.user_words.insert")
+                .description("Time to insert one batch of handed-out words")
+                .register(meterRegistry);
+        this.insertRows = DistributionSummary.builder("vocabulary.user_words.insert.rows")
+                .description("Rows per batch of handed-out words")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public int insertAll(List<UserWord> words) {
+        long start = System.nanoTime();
+        int inserted = 0;
+        for (int from = 0; from < words.size(); from += ROWS_PER_STATEMENT) {
+            List<UserWord> chunk = words.subList(from, Math.min(words.size(), from + ROWS_PER_STATEMENT));
+            StringBuilder sql = new StringBuilder(INSERT.length() + chunk.size() * (ROW.length() + 2)).append(INSERT);
+            List<Object> parameters = new ArrayList<>(chunk.size() * 7);
+            for (UserWord word : chunk) {
+                if (parameters.size() > 0) {
+                    sql.append(", ");
+                }
+                sql.append(ROW);
+                parameters.add(word.getUser().getId());
+                parameters.add(word.getAnkiNoteId());
+                parameters.add(Timestamp.valueOf(word.getCreated()));
+                parameters.add(word.getEaseFactor());
+                parameters.add(word.getIntervalDays());
+                parameters.add(word.getRepetitions());
+                parameters.add(Timestamp.valueOf(word.getDueAt()));
+            }
+            inserted += jdbcTemplate.update(sql.toString(), parameters.toArray());
+        }
+        insertTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        insertRows.record(inserted);
+        return inserted;
+    }
+
+    @Override
+    public void forEachAnkiNoteId(int userId, LongConsumer action) {
+        jdbcTemplate.query("SELECT anki_note_id FROM user_words WHERE user_id = ?",
+                (RowCallbackHandler) rs -> action.accept(rs.getLong(1)), userId);
+    }
+}
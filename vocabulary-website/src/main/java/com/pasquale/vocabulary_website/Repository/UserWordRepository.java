@@ -2,13 +2,36 @@ package com.pasquale.vocabulary_website.Repository;
 
 import com.pasquale.vocabulary_website.Entity.ApplicationUser;
 import com.pasquale.vocabulary_website.Entity.UserWord;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
-public interface UserWordRepository  extends JpaRepository<UserWord, Long> {
+public interface UserWordRepository  extends JpaRepository<UserWord, Long>, UserWordJdbcRepository {
 
     @Query("SELECT uw.ankiNoteId FROM UserWord uw WHERE uw.user = :user")
     Set<Long> findAnkiNoteIdsByUser(ApplicationUser user);
+
+    // First page of the due queue. Both queries read idx_user_words_user_due as a range in its own order and stop
+    // after `limit` rows; user_id leads the ORDER BY (it's fixed anyway) so the planner can see the index order applies.
+    @Query("SELECT uw FROM UserWord uw WHERE uw.user.id = :userId AND uw.dueAt <= :now ORDER BY uw.user.id, uw.dueAt, uw.id")
+    List<UserWord> findDue(int userId, LocalDateTime now, Limit limit);
+
+    // Next page: everything after the (dueAt, id) of the last card already returned. The redundant
+    // dueAt >= :afterDueAt is what gives the index scan its lower bound; the OR alone would start from the oldest card.
+    @Query("SELECT uw FROM UserWord uw WHERE uw.user.id = :userId AND uw.dueAt >= :afterDueAt AND uw.dueAt <= :now"
+            + " AND (uw.dueAt > :afterDueAt OR uw.id > :afterId)"
+            + " ORDER BY uw.user.id, uw.dueAt, uw.id")
+    List<UserWord> findDueAfter(int userId, LocalDateTime now, LocalDateTime afterDueAt, long afterId, Limit limit);
+
+    @Query("SELECT uw FROM UserWord uw WHERE uw.user.id = :userId AND uw.ankiNoteId = :ankiNoteId ORDER BY uw.id")
+    List<UserWord> findByUserIdAndNoteId(int userId, long ankiNoteId, Limit limit);
+
+    default Optional<UserWord> findByUserIdAndNoteId(int userId, long ankiNoteId) {
+        return findByUserIdAndNoteId(userId, ankiNoteId, Limit.of(1)).stream().findFirst();
+    }
 }
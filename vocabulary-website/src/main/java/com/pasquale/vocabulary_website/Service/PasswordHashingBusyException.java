@@ -0,0 +1,8 @@
+package com.pasquale.vocabulary_website.Service;
+
+// Thrown when the password hashing queue is full; sign-in and sign-up answer 429
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException() {
+        super("Too many sign-in requests, try again shortly.");
+    }
+}
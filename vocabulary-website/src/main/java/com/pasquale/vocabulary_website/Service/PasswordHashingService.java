@@ -0,0 +1,72 @@
+package com.pasquale.vocabulary_website.Service;
+
+import com.pasquale.vocabulary_website.Utils.ThreadFactories;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt work (sign-in checks and sign-up hashing) on its own small pool instead of Tomcat's request
+ * threads, so a burst of logins queues here while vocabulary requests keep their threads. The queue is
+ * bounded; once it is full new work is refused immediately and the caller answers 429.
+ *
+ * Meters: auth.password.hashing (time per task), auth.password.queue.wait (time before a thread picked it up),
+ * auth.password.rejected, and the executor.* pool gauges tagged name=password-hashing (executor.queued is the queue depth).
+ */
+@Service
+public class PasswordHashingService {
+    private final ThreadPoolExecutor executor;
+    private final Timer hashingTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejected;
+
+    public PasswordHashingService(
+            MeterRegistry meterRegistry,
+            @Value("${app.bcrypt.threads:0}") int threads,
+            @Value("${app.bcrypt.queueCapacity:32}") int queueCapacity
+    ) {
+        // Hashing is pure CPU: more threads than cores only adds latency to every login in the burst. For the
+        // same reason these stay platform threads in virtual-thread mode, with the pool size bounding the CPU use.
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), ThreadFactories.platform("password-hashing"),
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "password-hashing", Tags.empty()).bindTo(meterRegistry);
+        this.hashingTimer = Timer.builder("auth.password.hashing")
+                .description("Time spent running a password hashing task")
+                .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("auth.password.queue.wait")
+                .description("Time a password hashing task waited for a thread")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.password.rejected")
+                .description("Password hashing tasks refused because the queue was full")
+                .register(meterRegistry);
+    }
+
+    // Throws PasswordHashingBusyException right away, on the caller's thread, when the queue is full
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueWaitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return hashingTimer.record(work);
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+}
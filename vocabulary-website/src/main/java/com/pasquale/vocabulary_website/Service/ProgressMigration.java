@@ -0,0 +1,94 @@
+package com.pasquale.vocabulary_website.Service;
+
+import com.pasquale.vocabulary_website.Utils.ProgressMigrationStatus;
+import com.pasquale.vocabulary_website.Utils.ThreadFactories;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Packs every user without a current progress row, one transaction per user, on a background thread. Started
+ * from POST /api/admin/progress/migrate; safe to rerun and to run while serving, since users are locked one at
+ * a time and ones a hand-out brought up to date meanwhile are skipped. Starting it while a run is in flight
+ * returns that run.
+ */
+@Component
+public class ProgressMigration {
+    private static final Logger log = LoggerFactory.getLogger(ProgressMigration.class);
+
+    private final SeenNotesStore seenNotesStore;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(ThreadFactories.platform("progress-migration"));
+
+    // Guarded by this
+    private CompletableFuture<Void> inFlight;
+    private volatile int totalUsers;
+    private volatile int migratedUsers;
+    private volatile int skippedUsers;
+    private volatile int failedUsers;
+    private volatile String lastError;
+
+    public ProgressMigration(SeenNotesStore seenNotesStore, PlatformTransactionManager transactionManager) {
+        this.seenNotesStore = seenNotesStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public boolean isAvailable() {
+        return seenNotesStore.isCompact();
+    }
+
+    public synchronized CompletableFuture<Void> start() {
+        if (inFlight != null && !inFlight.isDone()) {
+            return inFlight;
+        }
+        totalUsers = 0;
+        migratedUsers = 0;
+        skippedUsers = 0;
+        failedUsers = 0;
+        lastError = null;
+        inFlight = CompletableFuture.runAsync(this::run, executor);
+        return inFlight;
+    }
+
+    private void run() {
+        List<Integer> userIds = seenNotesStore.findUnmigratedUserIds();
+        totalUsers = userIds.size();
+        log.info("Migrating {} users to compact progress.", userIds.size());
+        for (int userId : userIds) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> seenNotesStore.migrate(userId)))) {
+                    migratedUsers++;
+                } else {
+                    skippedUsers++;
+                }
+            } catch (RuntimeException e) {
+                // One user's failure shouldn't strand the rest; a rerun picks them up
+                failedUsers++;
+                lastError = "user " + userId + ": " + e.getMessage();
+                log.error("Failed to migrate user {} to compact progress: {}", userId, e.getMessage(), e);
+            }
+        }
+        log.info("Compact progress migration done: {} migrated, {} skipped, {} failed.", migratedUsers, skippedUsers, failedUsers);
+    }
+
+    public synchronized ProgressMigrationStatus getStatus() {
+        boolean running = inFlight != null && !inFlight.isDone();
+        return new ProgressMigrationStatus(running, totalUsers, migratedUsers, skippedUsers, failedUsers, lastError);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+}
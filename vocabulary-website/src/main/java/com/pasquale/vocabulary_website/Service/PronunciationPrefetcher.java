@@ -0,0 +1,170 @@
+package com.pasquale.vocabulary_website.Service;
+
+import com.pasquale.vocabulary_website.Repository.PronunciationRepository;
+import com.pasquale.vocabulary_website.Utils.DeckDefinition;
+import com.pasquale.vocabulary_website.Utils.PrefetchStatus;
+import com.pasquale.vocabulary_website.Utils.PronunciationLanguage;
+import com.pasquale.vocabulary_website.Utils.ThreadFactories;
+import com.pasquale.vocabulary_website.Utils.VocabularyDeck;
+import com.pasquale.vocabulary_website.Utils.VocabularyLoadedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Walks every deck in the background and resolves pronunciations before any user is served the word.
+ * Spends only the Forvo quota left above the interactive reserve and pauses while interactive lookups
+ * are in flight. Makes at most one Forvo call every forvo.prefetch.interval-ms (default 5 s, so at most
+ * 17280 a day), which spreads the quota over the day instead of spending it in a burst whenever it
+ * refills. Words already in the pronunciation store are skipped, so a restart resumes where the
+ * previous run stopped.
+ */
+@Service
+public class PronunciationPrefetcher {
+    private static final Logger log = LoggerFactory.getLogger(PronunciationPrefetcher.class);
+
+    private final PronunciationService pronunciationService;
+    private final PronunciationRepository pronunciationRepository;
+    private final VocabularyService vocabularyService;
+    private final boolean enabled;
+    private final long intervalMs;
+    // Spends most of its time waiting on Forvo, so it may be a virtual thread
+    private final ScheduledExecutorService scheduler;
+
+    // Only touched from the scheduler thread; volatile so getStatus() can read them
+    private volatile List<PendingWord> pendingWords = Collections.emptyList();
+    private volatile int cursor;
+    private volatile int totalWords;
+    private volatile int knownWords;
+    private volatile int fetchedThisRun;
+
+    public PronunciationPrefetcher(
+            PronunciationService pronunciationService,
+            PronunciationRepository pronunciationRepository,
+            VocabularyService vocabularyService,
+            @Value("${forvo.prefetch.enabled:true}") boolean enabled,
+            @Value("${forvo.prefetch.interval-ms:5000}") long intervalMs,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.pronunciationService = pronunciationService;
+        this.pronunciationRepository = pronunciationRepository;
+        this.vocabularyService = vocabularyService;
+        this.enabled = enabled;
+        this.intervalMs = intervalMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(
+                ThreadFactories.forBlockingWork("pronunciation-prefetch", virtualThreads));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Pronunciation prefetch is disabled.");
+            return;
+        }
+        // Decks may still be loading; onVocabularyLoaded plans again as each one comes in
+        scheduler.execute(this::plan);
+        scheduler.scheduleWithFixedDelay(this::tick, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Plans again after each deck load or reload since it may bring new words
+    @EventListener
+    public void onVocabularyLoaded(VocabularyLoadedEvent event) {
+        if (enabled) {
+            scheduler.execute(this::plan);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public PrefetchStatus getStatus() {
+        return new PrefetchStatus(enabled && cursor < pendingWords.size(), totalWords, knownWords, fetchedThisRun,
+                (long) pronunciationService.getForvoQuota().available(), (long) pronunciationService.getForvoQuota().getCapacity());
+    }
+
+    // Builds the list of distinct (language, cleaned word) pairs across the loaded decks that still have no stored answer
+    private void plan() {
+        Map<String, PendingWord> words = new LinkedHashMap<>();
+        for (DeckDefinition definition : vocabularyService.getDeckDefinitions()) {
+            if (!vocabularyService.isDeckReady(definition.getName())) {
+                continue;
+            }
+            PronunciationLanguage language = definition.getLanguage();
+            VocabularyDeck deck = vocabularyService.getDeck(definition.getName());
+            for (int i = 0; i < deck.size(); i++) {
+                String word = language.cleanWord(deck.german(i));
+                if (word != null && !word.isEmpty()) {
+                    words.putIfAbsent(language.key(word), new PendingWord(language, word));
+                }
+            }
+        }
+        Set<String> stored;
+        try {
+            stored = pronunciationRepository.findAllWords();
+        } catch (Exception e) {
+            log.error("Failed to read stored pronunciation words, prefetch will rely on the cache: {}", e.getMessage());
+            stored = Collections.emptySet();
+        }
+        List<PendingWord> pending = new ArrayList<>();
+        for (Map.Entry<String, PendingWord> entry : words.entrySet()) {
+            PendingWord word = entry.getValue();
+            if (!stored.contains(entry.getKey()) && !pronunciationService.isResolved(word.language, word.word)) {
+                pending.add(word);
+            }
+        }
+        this.totalWords = words.size();
+        this.knownWords = words.size() - pending.size();
+        this.fetchedThisRun = 0;
+        this.pendingWords = pending;
+        this.cursor = 0;
+        log.info("Pronunciation prefetch planned: {} of {} words still need a Forvo lookup.", pending.size(), words.size());
+    }
+
+    // Looks up the next pending word, skipping ones an interactive lookup resolved in the meantime
+    private void tick() {
+        try {
+            while (cursor < pendingWords.size()) {
+                PendingWord word = pendingWords.get(cursor);
+                if (pronunciationService.isResolved(word.language, word.word)) {
+                    knownWords++;
+                    cursor++;
+                    continue;
+                }
+                if (!pronunciationService.tryAcquireBackgroundPermit()) {
+                    return; // Out of background quota or users are waiting on Forvo; retry next tick
+                }
+                fetchedThisRun++;
+                // Empty when Forvo failed; the word stays unstored and is picked up again by the next run
+                if (pronunciationService.prefetch(word.language, word.word).blockOptional(Duration.ofSeconds(10)).isPresent()) {
+                    knownWords++;
+                }
+                cursor++;
+                return;
+            }
+        } catch (Exception e) {
+            log.error("Pronunciation prefetch failed at word {}: {}", cursor, e.getMessage());
+        }
+    }
+
+    private static final class PendingWord {
+        private final PronunciationLanguage language;
+        private final String word;
+
+        private PendingWord(PronunciationLanguage language, String word) {
+            this.language = language;
+            this.word = word;
+        }
+    }
+}
@@ -0,0 +1,417 @@
+package com.pasquale.vocabulary_website.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.pasquale.vocabulary_website.Entity.Pronunciation;
+import com.pasquale.vocabulary_website.Entity.VocabularyItem;
+import com.pasquale.vocabulary_website.ForvoLogic.ForvoItem;
+import com.pasquale.vocabulary_website.ForvoLogic.ForvoResponse;
+import com.pasquale.vocabulary_website.Repository.PronunciationRepository;
+import com.pasquale.vocabulary_website.Utils.NewWordEvent;
+import com.pasquale.vocabulary_website.Utils.PronunciationLanguage;
+import com.pasquale.vocabulary_website.Utils.ThreadFactories;
+import com.pasquale.vocabulary_website.Utils.TokenBucket;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class PronunciationService {
+    private static final Logger log = LoggerFactory.getLogger(PronunciationService.class);
+
+    private final WebClient webClient;
+    private final String forvoApiKey;
+    private final PronunciationRepository pronunciationRepository;
+    // Max number of Forvo calls in flight for a single request
+    private final int concurrency;
+    // Overall budget for enriching one request, however many words it has
+    private final Duration deadline;
+    // Language-prefixed cleaned word -> Forvo mp3 URL (empty when Forvo has no pronunciation for it) and when it was resolved
+    private final Cache<String, StoredPronunciation> pronunciationCache;
+    // Stored results older than this are served as-is and re-resolved in the background
+    private final Duration refreshAfter;
+    private final Duration negativeRefreshAfter;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    // Daily Forvo quota shared by interactive lookups and background work. Interactive lookups may spend
+    // it all and then keep Anki audio; background refreshes and prefetch only spend tokens above the reserve.
+    private final TokenBucket forvoQuota;
+    private final double backgroundReserve;
+    private final AtomicInteger interactiveInFlight = new AtomicInteger();
+    private final MeterRegistry meterRegistry;
+    // Runs the blocking pronunciation store reads and writes: a virtual thread per call in virtual-thread mode,
+    // Reactor's bounded elastic pool otherwise
+    private final Scheduler storeScheduler;
+    // Language code -> forvo.request timers, registered once per deck language rather than on every call
+    private final Map<String, RequestTimers> requestTimers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PronunciationService(
+            WebClient.Builder webClientBuilder,
+            PronunciationRepository pronunciationRepository,
+            MeterRegistry meterRegistry,
+            @Value("${forvo.api.key}") String forvoApiKey,
+            @Value("${forvo.api.baseurl}") String forvoBaseUrl,
+            @Value("${forvo.enrichment.concurrency:8}") int concurrency,
+            @Value("${forvo.enrichment.deadline-ms:3000}") long deadlineMs,
+            @Value("${forvo.cache.max-size:50000}") long cacheMaxSize,
+            @Value("${forvo.cache.ttl-hours:168}") long cacheTtlHours,
+            @Value("${forvo.cache.negative-ttl-minutes:60}") long negativeTtlMinutes,
+            @Value("${forvo.store.refresh-after-days:30}") long refreshAfterDays,
+            @Value("${forvo.store.negative-refresh-after-hours:24}") long negativeRefreshAfterHours,
+            @Value("${forvo.quota.daily:500}") long dailyQuota,
+            @Value("${forvo.quota.interactive-reserve:0.2}") double interactiveReserve,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.webClient = webClientBuilder.baseUrl(forvoBaseUrl).build();
+        this.forvoApiKey = forvoApiKey;
+        this.pronunciationRepository = pronunciationRepository;
+        this.meterRegistry = meterRegistry;
+        if (virtualThreads && ThreadFactories.virtualThreadsAvailable()) {
+            ThreadFactory threads = ThreadFactories.forBlockingWork("pronunciation-store", true);
+            this.storeScheduler = Schedulers.fromExecutor(task -> threads.newThread(task).start());
+        } else {
+            this.storeScheduler = Schedulers.boundedElastic();
+        }
+        this.refreshAfter = Duration.ofDays(refreshAfterDays);
+        this.negativeRefreshAfter = Duration.ofHours(negativeRefreshAfterHours);
+        this.backgroundReserve = dailyQuota * interactiveReserve;
+        // Start at the reserve so a restart never hands background work a fresh burst of quota
+        this.forvoQuota = new TokenBucket(dailyQuota, Duration.ofDays(1), backgroundReserve);
+        this.concurrency = Math.max(1, concurrency);
+        this.deadline = Duration.ofMillis(deadlineMs);
+        this.pronunciationCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new PronunciationExpiry(Duration.ofHours(cacheTtlHours), Duration.ofMinutes(negativeTtlMinutes)))
+                .recordStats()
+                .build();
+    }
+
+    @PostConstruct // Warm the cache from the durable store so a restart doesn't re-query Forvo
+    public void loadStoredPronunciations() {
+        try {
+            List<Pronunciation> stored = pronunciationRepository.findAll();
+            for (Pronunciation pronunciation : stored) {
+                pronunciationCache.put(pronunciation.getWord(), StoredPronunciation.of(pronunciation));
+            }
+            log.info("Loaded {} stored pronunciations.", stored.size());
+        } catch (Exception e) {
+            log.error("Failed to load stored pronunciations: {}", e.getMessage(), e);
+        }
+    }
+
+    // Hit, miss and eviction counters for the pronunciation cache
+    public CacheStats getCacheStats() {
+        return pronunciationCache.stats();
+    }
+
+    public List<VocabularyItem> enrich(List<VocabularyItem> items) {
+        return enrich(items, PronunciationLanguage.GERMAN);
+    }
+
+    /**
+     * Returns copies of the items with their audio replaced by a Forvo pronunciation in the given language
+     * where one resolves before the deadline. Order is preserved; unresolved words keep their Anki audio.
+     */
+    public List<VocabularyItem> enrich(List<VocabularyItem> items, PronunciationLanguage language) {
+        List<VocabularyItem> enriched = new ArrayList<>(items.size());
+        List<String> words = new ArrayList<>(items.size());
+        for (VocabularyItem item : items) {
+            enriched.add(new VocabularyItem(item));
+            words.add(item.getGerman());
+        }
+        String[] urls = resolve(words, language);
+        for (int i = 0; i < urls.length; i++) {
+            if (urls[i] != null) {
+                enriched.get(i).setAudio(urls[i]);
+            }
+        }
+        return enriched;
+    }
+
+    // The Forvo URL for each word, by position, or null where none resolved before the deadline
+    public String[] resolve(List<String> words, PronunciationLanguage language) {
+        String[] urls = new String[words.size()];
+        if (words.isEmpty()) {
+            return urls;
+        }
+
+        Map<Integer, String> resolved = resolveAudio(words, language, Flux.range(0, words.size()))
+                // Stop waiting at the deadline; cancelling here also cancels the in-flight calls
+                .take(deadline)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .block(deadline.plusSeconds(1));
+
+        if (resolved != null) {
+            resolved.forEach((i, url) -> urls[i] = url);
+        }
+        if (resolved == null || resolved.size() < words.size()) {
+            log.debug("Forvo resolved {} of {} words within {} ms", resolved == null ? 0 : resolved.size(), words.size(), deadline.toMillis());
+        }
+        return urls;
+    }
+
+    /**
+     * Streams copies of the items without waiting on any lookup: every word first, with its Forvo audio when that is
+     * already in memory and its Anki audio otherwise, then an audio event for each remaining word that resolves
+     * before the deadline. Cancelling the subscription cancels the lookups still in flight.
+     */
+    public Flux<NewWordEvent> enrichAsStream(List<VocabularyItem> items, PronunciationLanguage language) {
+        List<VocabularyItem> enriched = new ArrayList<>(items.size());
+        List<String> words = new ArrayList<>(items.size());
+        List<Integer> pending = new ArrayList<>();
+        for (VocabularyItem item : items) {
+            VocabularyItem copy = new VocabularyItem(item);
+            words.add(item.getGerman());
+            String word = language.cleanWord(copy.getGerman());
+            StoredPronunciation cached = word == null || word.isEmpty() ? null : cachedPronunciation(language, word);
+            if (cached == null) {
+                pending.add(enriched.size());
+            } else {
+                cached.url.ifPresent(copy::setAudio);
+            }
+            enriched.add(copy);
+        }
+
+        Flux<NewWordEvent> updates = resolveAudio(words, language, Flux.fromIterable(pending))
+                .take(deadline)
+                .map(resolved -> NewWordEvent.audio(enriched.get(resolved.getKey()).getNoteId(), resolved.getValue()));
+        return Flux.fromIterable(enriched).map(NewWordEvent::word).concatWith(updates);
+    }
+
+    // Index -> Forvo URL for each of the given word indexes that has a pronunciation, in completion order
+    private Flux<Map.Entry<Integer, String>> resolveAudio(List<String> words, PronunciationLanguage language,
+                                                          Flux<Integer> indexes) {
+        return indexes.flatMap(i -> {
+            String word = language.cleanWord(words.get(i));
+            if (word == null || word.isEmpty()) {
+                log.debug("Skipping Forvo for null/empty word at position {}", i);
+                return Mono.empty();
+            }
+            return lookupPronunciationUrl(language, word)
+                    .flatMap(url -> {
+                        if (url.isEmpty()) {
+                            log.warn("No Forvo URL found for word: {}", word);
+                        }
+                        return Mono.justOrEmpty(url);
+                    })
+                    .map(url -> Map.entry(i, url));
+        }, concurrency);
+    }
+
+    // Memory first, then the durable store, then Forvo. Only definite Forvo answers are kept, never errors or timeouts
+    private Mono<Optional<String>> lookupPronunciationUrl(PronunciationLanguage language, String word) {
+        String key = language.key(word);
+        StoredPronunciation cached = cachedPronunciation(language, word);
+        if (cached != null) {
+            return Mono.just(cached.url);
+        }
+        return Mono.fromCallable(() -> pronunciationRepository.findById(key))
+                .subscribeOn(storeScheduler)
+                .onErrorResume(e -> {
+                    log.error("Failed to read stored pronunciation for '{}': {}", word, e.getMessage());
+                    return Mono.just(Optional.empty());
+                })
+                .flatMap(stored -> {
+                    if (stored.isEmpty()) {
+                        return fetchInteractive(language, word).doOnNext(url -> remember(key, url));
+                    }
+                    StoredPronunciation pronunciation = StoredPronunciation.of(stored.get());
+                    pronunciationCache.put(key, pronunciation);
+                    refreshIfStale(language, word, pronunciation);
+                    return Mono.just(pronunciation.url);
+                });
+    }
+
+    // The in-memory answer, if any, scheduling a background refresh when it is stale
+    private StoredPronunciation cachedPronunciation(PronunciationLanguage language, String word) {
+        StoredPronunciation cached = pronunciationCache.getIfPresent(language.key(word));
+        if (cached != null) {
+            refreshIfStale(language, word, cached);
+        }
+        return cached;
+    }
+
+    // Empty once the quota is spent, so the word keeps its Anki audio and is looked up again on a later request
+    private Mono<Optional<String>> fetchInteractive(PronunciationLanguage language, String word) {
+        return Mono.defer(() -> {
+            if (!forvoQuota.tryConsume(0)) {
+                log.debug("Forvo quota spent, keeping Anki audio for '{}'", word);
+                return Mono.empty();
+            }
+            interactiveInFlight.incrementAndGet();
+            return fetchPronunciationUrl(language, word)
+                    .doFinally(signal -> interactiveInFlight.decrementAndGet());
+        });
+    }
+
+    // True once the word has a definite answer in memory (found or not found)
+    public boolean isResolved(PronunciationLanguage language, String word) {
+        return pronunciationCache.getIfPresent(language.key(word)) != null;
+    }
+
+    // Takes one unit of quota for background work, unless interactive lookups are running or only the reserve is left
+    public boolean tryAcquireBackgroundPermit() {
+        return interactiveInFlight.get() == 0 && forvoQuota.tryConsume(backgroundReserve);
+    }
+
+    // Resolves and stores a word ahead of time; callers must hold a background permit
+    public Mono<Optional<String>> prefetch(PronunciationLanguage language, String word) {
+        return fetchPronunciationUrl(language, word).doOnNext(url -> remember(language.key(word), url));
+    }
+
+    public TokenBucket getForvoQuota() {
+        return forvoQuota;
+    }
+
+    private void remember(String key, Optional<String> url) {
+        LocalDateTime now = LocalDateTime.now();
+        pronunciationCache.put(key, new StoredPronunciation(url, now));
+        // Persist off the request path; losing a write only costs a repeat lookup later
+        Mono.fromRunnable(() -> pronunciationRepository.save(new Pronunciation(key, url.orElse(null), now)))
+                .subscribeOn(storeScheduler)
+                .subscribe(null, e -> log.error("Failed to store pronunciation for '{}': {}", key, e.getMessage()));
+    }
+
+    private void refreshIfStale(PronunciationLanguage language, String word, StoredPronunciation pronunciation) {
+        String key = language.key(word);
+        Duration maxAge = pronunciation.url.isPresent() ? refreshAfter : negativeRefreshAfter;
+        if (pronunciation.resolvedAt.plus(maxAge).isAfter(LocalDateTime.now()) || !refreshing.add(key)) {
+            return;
+        }
+        if (!tryAcquireBackgroundPermit()) {
+            refreshing.remove(key); // Try again on a later lookup
+            return;
+        }
+        log.debug("Refreshing stale pronunciation for '{}' resolved at {}", key, pronunciation.resolvedAt);
+        fetchPronunciationUrl(language, word)
+                .doFinally(signal -> refreshing.remove(key))
+                .subscribe(url -> remember(key, url));
+    }
+
+    // Each call is timed in forvo.request by outcome: found, not_found, error, or cancelled when the request's
+    // deadline passed (or a streaming client went away) before Forvo answered
+    private Mono<Optional<String>> fetchPronunciationUrl(PronunciationLanguage language, String word) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            RequestTimers timers = requestTimers.computeIfAbsent(language.getCode(), code -> new RequestTimers(meterRegistry, code));
+            Timer[] outcome = {timers.cancelled};
+            return fetchPronunciationUrl(language, word, timers, outcome)
+                    .doFinally(signal -> outcome[0].record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private Mono<Optional<String>> fetchPronunciationUrl(PronunciationLanguage language, String word, RequestTimers timers, Timer[] outcome) {
+        log.debug("Fetching Forvo pronunciation for: {} (Language: {}, Country: {})", word, language.getCode(), language.getCountry());
+        return webClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        // Path includes required params as path variables
+                        .path("/key/{key}/format/json/action/word-pronunciations/word/{word}/language/{language}")
+                        // Add optional country filter as a query parameter
+                        .queryParamIfPresent("country", Optional.ofNullable(language.getCountry()))
+                        .build(forvoApiKey, word, language.getCode())) // Pass values for path variables {key}, {word} and {language}
+                .retrieve()
+                .bodyToMono(ForvoResponse.class)
+                .map(forvoResponse -> {
+                    if (forvoResponse != null && forvoResponse.getItems() != null && !forvoResponse.getItems().isEmpty()) {
+                        // Find first non-null, non-empty mp3 path
+                        return forvoResponse.getItems().stream()
+                                .map(ForvoItem::getPathMp3)
+                                .filter(Objects::nonNull)
+                                .filter(url -> !url.isEmpty())
+                                .findFirst();
+                    }
+                    return Optional.<String>empty();
+                })
+                .doOnNext(url -> outcome[0] = url.isPresent() ? timers.found : timers.notFound)
+                .doOnError(WebClientResponseException.class, e -> {
+                    log.error("Forvo API error for word '{}': Status {}, Body {}", word, e.getStatusCode(), e.getResponseBodyAsString(), e);
+                })
+                .onErrorResume(e -> {
+                    outcome[0] = timers.error;
+                    log.error("Failed to get Forvo data for word '{}' due to: {}", word, e.getMessage());
+                    return Mono.empty(); // Complete empty on error so the failure is not cached as "no pronunciation"
+                });
+    }
+
+    private static final class RequestTimers {
+        private final Timer found;
+        private final Timer notFound;
+        private final Timer error;
+        private final Timer cancelled;
+
+        private RequestTimers(MeterRegistry meterRegistry, String language) {
+            this.found = timer(meterRegistry, language, "found");
+            this.notFound = timer(meterRegistry, language, "not_found");
+            this.error = timer(meterRegistry, language, "error");
+            this.cancelled = timer(meterRegistry, language, "cancelled");
+        }
+
+        private static Timer timer(MeterRegistry meterRegistry, String language, String outcome) {
+            return Timer.builder("forvo.request")
+                    .tags("language", language, "outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+    }
+
+    private static final class StoredPronunciation {
+        private final Optional<String> url;
+        private final LocalDateTime resolvedAt;
+
+        private StoredPronunciation(Optional<String> url, LocalDateTime resolvedAt) {
+            this.url = url;
+            this.resolvedAt = resolvedAt;
+        }
+
+        private static StoredPronunciation of(Pronunciation pronunciation) {
+            return new StoredPronunciation(Optional.ofNullable(pronunciation.getMp3Url()), pronunciation.getResolvedAt());
+        }
+    }
+
+    // Found pronunciations live for the full TTL, "not found" answers for the shorter negative TTL
+    private static final class PronunciationExpiry implements Expiry<String, StoredPronunciation> {
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        PronunciationExpiry(Duration ttl, Duration negativeTtl) {
+            this.ttlNanos = ttl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String word, StoredPronunciation pronunciation, long currentTime) {
+            return pronunciation.url.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String word, StoredPronunciation pronunciation, long currentTime, long currentDuration) {
+            return expireAfterCreate(word, pronunciation, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String word, StoredPronunciation pronunciation, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
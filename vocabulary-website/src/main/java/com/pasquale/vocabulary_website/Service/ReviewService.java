@@ -0,0 +1,85 @@
+package com.pasquale.vocabulary_website.Service;
+
+import com.pasquale.vocabulary_website.Entity.UserWord;
+import com.pasquale.vocabulary_website.Repository.UserWordRepository;
+import com.pasquale.vocabulary_website.Utils.DueCard;
+import com.pasquale.vocabulary_website.Utils.DueCardsResponse;
+import com.pasquale.vocabulary_website.Utils.SpacedRepetition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Review queue per user. Due cards are read in (due_at, id) order a page at a time; the cursor is the
+ * position of the last card returned, so each page is an index range scan of the requested size no
+ * matter how many words the user holds or how far into the queue the page is.
+ */
+@Service
+public class ReviewService {
+    private static final Logger log = LoggerFactory.getLogger(ReviewService.class);
+
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final char CURSOR_SEPARATOR = '_';
+
+    private final UserWordRepository userWordRepository;
+    private final VocabularyService vocabularyService;
+
+    public ReviewService(UserWordRepository userWordRepository, VocabularyService vocabularyService) {
+        this.userWordRepository = userWordRepository;
+        this.vocabularyService = vocabularyService;
+    }
+
+    @Transactional(readOnly = true)
+    public DueCardsResponse getDueCards(int userId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        LocalDateTime now = LocalDateTime.now();
+        List<UserWord> due;
+        if (cursor == null || cursor.isEmpty()) {
+            due = userWordRepository.findDue(userId, now, Limit.of(pageSize));
+        } else {
+            int separator = cursor.lastIndexOf(CURSOR_SEPARATOR);
+            LocalDateTime afterDueAt;
+            long afterId;
+            try {
+                afterDueAt = LocalDateTime.parse(cursor.substring(0, Math.max(separator, 0)));
+                afterId = Long.parseLong(cursor.substring(separator + 1));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            due = userWordRepository.findDueAfter(userId, now, afterDueAt, afterId, Limit.of(pageSize));
+        }
+
+        List<DueCard> cards = new ArrayList<>(due.size());
+        for (UserWord word : due) {
+            cards.add(new DueCard(word, vocabularyService.findItem(word.getAnkiNoteId())));
+        }
+        String nextCursor = null;
+        if (due.size() == pageSize) {
+            UserWord last = due.get(due.size() - 1);
+            nextCursor = last.getDueAt().toString() + CURSOR_SEPARATOR + last.getId();
+        }
+        return new DueCardsResponse(cards, nextCursor);
+    }
+
+    // Empty when the user was never given this note
+    @Transactional
+    public Optional<DueCard> grade(int userId, long noteId, int grade) {
+        Optional<UserWord> found = userWordRepository.findByUserIdAndNoteId(userId, noteId);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        UserWord word = found.get();
+        SpacedRepetition.review(word, grade, LocalDateTime.now());
+        userWordRepository.save(word);
+        log.debug("User {} graded note {} with {}, next review in {} days.", userId, noteId, grade, word.getIntervalDays());
+        return Optional.of(new DueCard(word, vocabularyService.findItem(noteId)));
+    }
+}
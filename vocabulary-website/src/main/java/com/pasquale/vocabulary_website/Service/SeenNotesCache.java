@@ -0,0 +1,128 @@
+package com.pasquale.vocabulary_website.Service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pasquale.vocabulary_website.Repository.UserRepository;
+import com.pasquale.vocabulary_website.Utils.VocabularyDeck;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.BitSet;
+
+/**
+ * Each user's seen notes as a bitmap over deck ordinals, so /new-words doesn't reload the whole history
+ * every time. An entry holds for one deck version and one value of the user's words_version counter. Every
+ * request reads the counter by primary key, locking the user's row until its transaction ends so that two
+ * hand-outs for the same user never draw from the same seen set; if the counter moved (another instance handed out words) or the deck was
+ * reloaded, the entry is rebuilt from SeenNotesStore. Words handed out through this instance are written through
+ * once their transaction commits, provided the counter moved by exactly one, i.e. nobody wrote in between.
+ * Bounded by bitmap bytes; Caffeine evicts the least valuable entries (W-TinyLFU, close to LRU in practice).
+ */
+@Component
+public class SeenNotesCache {
+    private final SeenNotesStore seenNotesStore;
+    private final UserRepository userRepository;
+    // "userId:deck" -> seen bitmap
+    private final Cache<String, Snapshot> cache;
+    private final Counter loads;
+
+    public SeenNotesCache(
+            SeenNotesStore seenNotesStore,
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${vocabulary.seen-cache.max-mb:64}") long maxMegabytes
+    ) {
+        this.seenNotesStore = seenNotesStore;
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxMegabytes * 1024 * 1024)
+                .weigher((String key, Snapshot snapshot) -> snapshot.seen.size() / 8 + 64)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "vocabulary.seen");
+        this.loads = Counter.builder("vocabulary.seen.loads")
+                .description("Seen sets rebuilt from storage")
+                .register(meterRegistry);
+    }
+
+    // Call inside the request's transaction, before recordHandedOut; holds the user's row lock from here on
+    public Snapshot get(int userId, String deckName, VocabularyDeck deck) {
+        long version = userRepository.findWordsVersionForUpdate(userId);
+        String key = userId + ":" + deckName;
+        Snapshot cached = cache.getIfPresent(key);
+        if (cached != null && cached.userVersion == version && cached.deckVersion == deck.getVersion()) {
+            return cached;
+        }
+        BitSet seen = new BitSet(deck.size());
+        seenNotesStore.forEachSeenNoteId(userId, version, noteId -> {
+            int ordinal = deck.ordinalOf(noteId);
+            if (ordinal >= 0) { // Notes from other decks or no longer part of this one
+                seen.set(ordinal);
+            }
+        });
+        loads.increment();
+        Snapshot loaded = new Snapshot(key, userId, version, deck.getVersion(), seen);
+        cache.put(key, loaded);
+        return loaded;
+    }
+
+    /**
+     * Bumps the user's counter for words just inserted, records their note ids with the store and, after commit,
+     * caches {@code seenAfter} (the snapshot's bitmap plus the new ordinals). Must run in the transaction that
+     * inserted them.
+     */
+    public void recordHandedOut(Snapshot basis, BitSet seenAfter, long[] noteIds) {
+        userRepository.incrementWordsVersion(basis.userId);
+        // get() holds the user's row lock, so this is exactly our bump unless a writer that skipped it came first
+        long version = userRepository.findWordsVersion(basis.userId);
+        seenNotesStore.recordSeen(basis.userId, noteIds, version);
+        if (version != basis.userVersion + 1) {
+            cache.invalidate(basis.key);
+            return;
+        }
+        Snapshot updated = new Snapshot(basis.key, basis.userId, version, basis.deckVersion, seenAfter);
+        Runnable writeThrough = () -> {
+            if (!cache.asMap().replace(basis.key, basis, updated)) {
+                cache.invalidate(basis.key); // Replaced or evicted meanwhile; let the next request rebuild it
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A rolled-back hand-out must never be cached under a version another instance may reach for real
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    writeThrough.run();
+                }
+            });
+        } else {
+            writeThrough.run();
+        }
+    }
+
+    public static final class Snapshot {
+        private final String key;
+        private final int userId;
+        private final long userVersion;
+        private final long deckVersion;
+        // Shared by every request that hits this entry; never modified
+        private final BitSet seen;
+
+        private Snapshot(String key, int userId, long userVersion, long deckVersion, BitSet seen) {
+            this.key = key;
+            this.userId = userId;
+            this.userVersion = userVersion;
+            this.deckVersion = deckVersion;
+            this.seen = seen;
+        }
+
+        // A private copy the caller may mark picked ordinals in
+        public BitSet copySeen() {
+            return (BitSet) seen.clone();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.pasquale.vocabulary_website.Service;
+
+import com.pasquale.vocabulary_website.Entity.UserProgress;
+import com.pasquale.vocabulary_website.Repository.UserProgressRepository;
+import com.pasquale.vocabulary_website.Repository.UserRepository;
+import com.pasquale.vocabulary_website.Repository.UserWordRepository;
+import com.pasquale.vocabulary_website.Utils.NoteIdSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+/**
+ * Where a user's seen notes are read from. By default that's user_words, one row per note. With
+ * vocabulary.progress.compact the set is also kept packed in a single user_progress row, merged on every
+ * hand-out, and reads come from there. user_words keeps its rows either way since they carry the review
+ * schedule; what the compact row saves is the index range scan over all of them on every seen-set load.
+ *
+ * A row is stamped with the user's words_version it is complete for and only read at that version. Hand-outs
+ * while the mode was off, or on an instance running without it, leave it behind; reads then fall back to
+ * user_words, which is always complete, until the next hand-out or ProgressMigration rebuilds it.
+ */
+@Component
+public class SeenNotesStore {
+    private static final Logger log = LoggerFactory.getLogger(SeenNotesStore.class);
+
+    private final UserWordRepository userWordRepository;
+    private final UserProgressRepository progressRepository;
+    private final UserRepository userRepository;
+    private final boolean compact;
+
+    public SeenNotesStore(
+            UserWordRepository userWordRepository,
+            UserProgressRepository progressRepository,
+            UserRepository userRepository,
+            @Value("${vocabulary.progress.compact:false}") boolean compact
+    ) {
+        this.userWordRepository = userWordRepository;
+        this.progressRepository = progressRepository;
+        this.userRepository = userRepository;
+        this.compact = compact;
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    // wordsVersion is the user's counter as read by the caller, in the same transaction
+    public void forEachSeenNoteId(int userId, long wordsVersion, LongConsumer action) {
+        if (compact) {
+            Optional<byte[]> stored = progressRepository.findSeenNotes(userId, wordsVersion);
+            if (stored.isPresent()) {
+                NoteIdSet.forEach(stored.get(), action);
+                return;
+            }
+        }
+        userWordRepository.forEachAnkiNoteId(userId, action);
+    }
+
+    /**
+     * Merges newly handed-out notes into the user's progress row and stamps it with {@code wordsVersion}, the
+     * counter after this hand-out's bump. Called from SeenNotesCache.recordHandedOut, after the words are inserted
+     * and under the user's row lock taken by the bump. A missing or stale row is rebuilt from user_words instead,
+     * which already holds this batch too.
+     */
+    public void recordSeen(int userId, long[] noteIds, long wordsVersion) {
+        if (!compact) {
+            return;
+        }
+        Optional<UserProgress> stored = progressRepository.findForUpdate(userId);
+        if (stored.isPresent() && stored.get().getWordsVersion() == wordsVersion - 1) {
+            UserProgress progress = stored.get();
+            progress.setSeenNotes(NoteIdSet.merge(progress.getSeenNotes(), noteIds));
+            progress.setNoteCount(NoteIdSet.count(progress.getSeenNotes()));
+            progress.setWordsVersion(wordsVersion);
+            progress.setUpdatedAt(LocalDateTime.now());
+        } else {
+            backfill(userId, wordsVersion);
+        }
+    }
+
+    // Builds or rebuilds the user's progress row from user_words unless it is current; false if there was nothing to do
+    @Transactional
+    public boolean migrate(int userId) {
+        userRepository.lockById(userId); // Orders this against a concurrent hand-out writing the row
+        long wordsVersion = userRepository.findWordsVersion(userId);
+        if (progressRepository.findSeenNotes(userId, wordsVersion).isPresent()) {
+            return false;
+        }
+        backfill(userId, wordsVersion);
+        return true;
+    }
+
+    public List<Integer> findUnmigratedUserIds() {
+        return progressRepository.findUnmigratedUserIds();
+    }
+
+    private void backfill(int userId, long wordsVersion) {
+        LongStream.Builder noteIds = LongStream.builder();
+        userWordRepository.forEachAnkiNoteId(userId, noteIds::add);
+        byte[] packed = NoteIdSet.encode(noteIds.build().toArray());
+        progressRepository.save(new UserProgress(userId, packed, NoteIdSet.count(packed), wordsVersion));
+        log.debug("Migrated user {} to compact progress: {} bytes", userId, packed.length);
+    }
+}
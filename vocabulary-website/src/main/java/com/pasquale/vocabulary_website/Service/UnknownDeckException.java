@@ -0,0 +1,7 @@
+package com.pasquale.vocabulary_website.Service;
+
+public class UnknownDeckException extends IllegalArgumentException {
+    public UnknownDeckException(String deckName) {
+        super("Unknown deck: " + deckName);
+    }
+}
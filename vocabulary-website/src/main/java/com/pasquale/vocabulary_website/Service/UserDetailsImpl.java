@@ -2,6 +2,7 @@ package com.pasquale.vocabulary_website.Service;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.ArrayList;
@@ -11,6 +12,8 @@ import java.util.Objects;
 
 public class UserDetailsImpl implements UserDetails {
     private static final long serialVersionUID = 1L;
+    public static final String ADMIN_ROLE = "ADMIN";
+    public static final String ADMIN_AUTHORITY = "ROLE_" + ADMIN_ROLE;
     private int id;
     private String username;
     private String email;
@@ -29,6 +32,9 @@ public class UserDetailsImpl implements UserDetails {
 
     public static UserDetailsImpl build(com.pasquale.vocabulary_website.Entity.ApplicationUser user) {
         List<GrantedAuthority> authorities = new ArrayList<>();
+        if (user.isAdmin()) {
+            authorities.add(new SimpleGrantedAuthority(ADMIN_AUTHORITY));
+        }
 
         return new UserDetailsImpl(
                 user.getId(),
@@ -1,20 +1,40 @@
 package com.pasquale.vocabulary_website.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.pasquale.vocabulary_website.Entity.ApplicationUser;
 import com.pasquale.vocabulary_website.Repository.UserRepository;
+import jakarta.annotation.PostConstruct;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+
 @Service
 public class UserService implements UserDetailsService {
 
     @Autowired
     UserRepository userRepository;
 
+    @Value("${app.userCacheTtlSeconds:60}")
+    private long userCacheTtlSeconds;
+
+    // Users by id for requests that need the entity; the TTL bounds how long a changed or deleted user is served stale
+    private Cache<Integer, ApplicationUser> users;
+
+    @PostConstruct
+    void init() {
+        users = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofSeconds(userCacheTtlSeconds))
+                .build();
+    }
+
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String username){
@@ -22,4 +42,16 @@ public class UserService implements UserDetailsService {
 
         return UserDetailsImpl.build(user);
     }
+
+    // Detached and shared between requests: read it, don't modify it
+    public ApplicationUser getUser(int id) {
+        ApplicationUser user = users.getIfPresent(id);
+        if (user == null) {
+            // Not through users.get(id, loader): Caffeine runs the loader inside a synchronized map bin, and a
+            // query there would pin a virtual request thread to its carrier for the whole round trip
+            user = userRepository.findByUserId(id).orElseThrow(() -> new UsernameNotFoundException("User not found"));
+            users.put(id, user);
+        }
+        return user;
+    }
 }
@@ -0,0 +1,103 @@
+package com.pasquale.vocabulary_website.Service;
+
+import com.pasquale.vocabulary_website.Utils.DeckDefinition;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloads a deck when its .apkg file changes on disk. Off by default; writes are debounced so a
+ * file that is still being copied in is only picked up once it has been quiet for a while.
+ */
+@Service
+public class VocabularyFileWatcher {
+    private static final Logger log = LoggerFactory.getLogger(VocabularyFileWatcher.class);
+
+    private final VocabularyService vocabularyService;
+    private final boolean enabled;
+    private final long debounceMs;
+    private volatile WatchService watchService;
+
+    public VocabularyFileWatcher(
+            VocabularyService vocabularyService,
+            @Value("${anki.reload.watch:false}") boolean enabled,
+            @Value("${anki.reload.debounce-ms:2000}") long debounceMs
+    ) {
+        this.vocabularyService = vocabularyService;
+        this.enabled = enabled;
+        this.debounceMs = debounceMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        // Watched file -> deck name
+        Map<Path, String> files = new HashMap<>();
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            Set<Path> directories = new HashSet<>();
+            for (DeckDefinition definition : vocabularyService.getDeckDefinitions()) {
+                Path file = Paths.get(definition.getPath()).toAbsolutePath();
+                files.put(file, definition.getName());
+                if (directories.add(file.getParent())) {
+                    file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Cannot watch the deck files for changes: {}", e.getMessage());
+            return;
+        }
+        Thread thread = new Thread(() -> watch(files), "vocabulary-file-watch");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Watching {} for deck changes.", files.keySet());
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watch(Map<Path, String> files) {
+        Set<String> changed = new LinkedHashSet<>();
+        try {
+            while (true) {
+                // Block until something happens; once a change is pending, wait only for the quiet period
+                WatchKey key = changed.isEmpty() ? watchService.take() : watchService.poll(debounceMs, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    for (String deckName : changed) {
+                        log.info("Deck '{}' changed on disk, reloading it.", deckName);
+                        vocabularyService.reload(deckName);
+                    }
+                    changed.clear();
+                    continue;
+                }
+                Path directory = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.context() instanceof Path name) {
+                        String deckName = files.get(directory.resolve(name));
+                        if (deckName != null) {
+                            changed.add(deckName);
+                        }
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Shutting down
+        }
+    }
+}
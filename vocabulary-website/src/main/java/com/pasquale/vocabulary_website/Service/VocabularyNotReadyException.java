@@ -0,0 +1,8 @@
+package com.pasquale.vocabulary_website.Service;
+
+// Thrown while no deck has been loaded yet, either because it is still loading or because the first load failed
+public class VocabularyNotReadyException extends IllegalStateException {
+    public VocabularyNotReadyException(String loadError) {
+        super(loadError == null ? "Vocabulary is still loading." : "Vocabulary failed to load: " + loadError);
+    }
+}
@@ -0,0 +1,48 @@
+package com.pasquale.vocabulary_website.Service;
+
+import com.pasquale.vocabulary_website.Utils.VocabularyLoadedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds readiness at REFUSING_TRAFFIC until every deck has loaded once. Spring Boot flips readiness to
+ * ACCEPTING_TRAFFIC as soon as the context is up; if the decks aren't in by then this switches it back,
+ * and accepts traffic once the last one arrives.
+ */
+@Component
+public class VocabularyReadinessGate {
+    private static final Logger log = LoggerFactory.getLogger(VocabularyReadinessGate.class);
+
+    private final VocabularyService vocabularyService;
+    private final ApplicationEventPublisher eventPublisher;
+    private boolean applicationReady;
+
+    public VocabularyReadinessGate(VocabularyService vocabularyService, ApplicationEventPublisher eventPublisher) {
+        this.vocabularyService = vocabularyService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @EventListener
+    public synchronized void onReadinessChange(AvailabilityChangeEvent<ReadinessState> event) {
+        if (event.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+            applicationReady = true;
+            if (!vocabularyService.isDeckReady()) {
+                log.info("Application started, refusing traffic until the vocabulary decks are loaded.");
+                AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+            }
+        }
+    }
+
+    // The first load can finish before this listener is registered; onReadinessChange covers that case
+    @EventListener
+    public synchronized void onVocabularyLoaded(VocabularyLoadedEvent event) {
+        if (applicationReady && vocabularyService.isDeckReady()) {
+            AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.ACCEPTING_TRAFFIC);
+        }
+    }
+}
@@ -1,219 +1,542 @@
 package com.pasquale.vocabulary_website.Service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pasquale.vocabulary_website.Config.VocabularyDecksProperties;
 import com.pasquale.vocabulary_website.Entity.ApplicationUser;
 import com.pasquale.vocabulary_website.Entity.UserWord;
 import com.pasquale.vocabulary_website.Entity.VocabularyItem;
-import com.pasquale.vocabulary_website.ForvoLogic.ForvoItem;
-import com.pasquale.vocabulary_website.ForvoLogic.ForvoResponse;
 import com.pasquale.vocabulary_website.Repository.UserWordRepository;
 import com.pasquale.vocabulary_website.Utils.AnkiDatasetReader;
+import com.pasquale.vocabulary_website.Utils.DeckDefinition;
+import com.pasquale.vocabulary_website.Utils.DeckDownload;
+import com.pasquale.vocabulary_website.Utils.DeckStatus;
+import com.pasquale.vocabulary_website.Utils.NewWordEvent;
+import com.pasquale.vocabulary_website.Utils.PronunciationLanguage;
+import com.pasquale.vocabulary_website.Utils.ThreadFactories;
+import com.pasquale.vocabulary_website.Utils.UnseenWordSampler;
+import com.pasquale.vocabulary_website.Utils.VocabularyDeck;
+import com.pasquale.vocabulary_website.Utils.VocabularyItemsJson;
+import com.pasquale.vocabulary_website.Utils.VocabularyJsonFragments;
+import com.pasquale.vocabulary_website.Utils.VocabularyLoadedEvent;
+import com.pasquale.vocabulary_website.Utils.VocabularySearchIndex;
+import com.pasquale.vocabulary_website.Utils.VocabularySnapshotFile;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
-import jakarta.transaction.Transactional;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
-import reactor.core.publisher.Mono;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.SQLException;
-import java.time.Duration;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ObjLongConsumer;
 
 @Service
 public class VocabularyService {
     private static final Logger log = LoggerFactory.getLogger(VocabularyService.class);
 
+    // Name of the deck read from anki.dataset.path when no decks are configured
+    public static final String LEGACY_DECK_NAME = "german";
+
+    // Deck-level load phases, next to AnkiDatasetReader's extract and parse, in vocabulary.deck.load.phase
+    private static final String PHASE_SNAPSHOT = "snapshot";
+    private static final String PHASE_INDEX = "index";
+    private static final String PHASE_ENCODE = "encode";
+
     @Autowired
     private AnkiDatasetReader ankiReader;
 
     @Autowired
     private UserWordRepository userWordRepository;
 
-    @Value("${anki.dataset.path}")
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${anki.dataset.path:}")
     private String ankiDatasetPath;
 
-    private final WebClient webClient;
-    private final String forvoApiKey;
+    @Value("${anki.snapshot.enabled:true}")
+    private boolean snapshotEnabled;
+
+    // Point this at a volume shared between instances (or bake it into the image) so new instances skip the parse too
+    @Value("${anki.snapshot.dir:${java.io.tmpdir}/vocabulary-snapshots}")
+    private String snapshotDir;
+
+    // Notes per page of the /deck download
+    @Value("${vocabulary.download.page-size:1000}")
+    private int downloadPageSize;
 
-    private List<VocabularyItem> allVocabulary = Collections.emptyList();
+    private final PronunciationService pronunciationService;
 
-    private Map<Long, VocabularyItem> vocabularyMap = Collections.emptyMap();
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final VocabularyDecksProperties decksProperties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final SeenNotesCache seenNotesCache;
+
+    // The one Spring MVC writes responses with, so pre-encoded JSON matches what it would write
+    private final ObjectMapper objectMapper;
+
+    // One slot per configured deck, in configuration order. Each has its own deck, index and reload state.
+    private Map<String, DeckSlot> decks = Collections.emptyMap();
+    private String defaultDeck;
+    // Decks load and reload in parallel; reloads of the same deck are coalesced, so this holds at most one thread per deck
+    // Platform threads even in virtual-thread mode: loading reads the package through SQLite's native driver,
+    // which would pin a virtual thread's carrier for the whole parse
+    private final ExecutorService reloadExecutor = Executors.newCachedThreadPool(ThreadFactories.platform("vocabulary-reload"));
 
     @Autowired
     public VocabularyService(
             AnkiDatasetReader ankiDatasetReader,
             UserWordRepository userWordRepository,
-            WebClient.Builder webClientBuilder,
-            @Value("${forvo.api.key}") String forvoApiKey,
-            @Value("${forvo.api.baseurl}") String forvoBaseUrl
-
+            PronunciationService pronunciationService,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            VocabularyDecksProperties decksProperties,
+            SeenNotesCache seenNotesCache,
+            ObjectMapper objectMapper
     ){
         this.ankiReader = ankiDatasetReader;
         this.userWordRepository = userWordRepository;
-        this.webClient = webClientBuilder.baseUrl(forvoBaseUrl).build();
-        this.forvoApiKey = forvoApiKey;
-
+        this.pronunciationService = pronunciationService;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.decksProperties = decksProperties;
+        this.seenNotesCache = seenNotesCache;
+        this.objectMapper = objectMapper;
     }
 
 
-    @PostConstruct // Load data when the service starts
+    // The context does not wait for the decks: they load on the reload threads and VocabularyReadinessGate keeps
+    // the app out of rotation until all are in. A failed first load leaves the app not ready instead of serving an empty deck.
+    @PostConstruct
     public void loadVocabularyData() {
-        log.info("Loading Anki vocabulary data from: {}", ankiDatasetPath);
-        try {
-            List<Map<String, Object>> rawData = ankiReader.readAnkiDataset(ankiDatasetPath);
+        Map<String, DeckSlot> slots = new LinkedHashMap<>();
+        for (DeckDefinition definition : deckDefinitions()) {
+            slots.put(definition.getName(), new DeckSlot(definition, meterRegistry));
+        }
+        this.decks = Collections.unmodifiableMap(slots);
+        this.defaultDeck = decksProperties.getDefaultDeck() != null ? decksProperties.getDefaultDeck()
+                : slots.keySet().iterator().next();
+        if (!slots.containsKey(defaultDeck)) {
+            throw new IllegalStateException("Default deck '" + defaultDeck + "' is not configured");
+        }
+        for (DeckSlot slot : slots.values()) {
+            log.info("Loading Anki vocabulary deck '{}' from: {}", slot.definition.getName(), slot.definition.getPath());
+            reload(slot);
+        }
+    }
 
-            // Transform raw map data into VocabularyItem objects
-            this.allVocabulary = rawData.stream()
-                    .map(VocabularyItem::new) // <-- Use explicit lambda
-                    .filter(item -> item.getNoteId() != 0)
-                    .toList();
+    private List<DeckDefinition> deckDefinitions() {
+        if (decksProperties.getDecks().isEmpty()) {
+            return List.of(new DeckDefinition(LEGACY_DECK_NAME, ankiDatasetPath, new String[]{
+                    VocabularyItem.FIELD_GERMAN, VocabularyItem.FIELD_ENGLISH, VocabularyItem.FIELD_SAMPLE_SENTENCE, VocabularyItem.FIELD_AUDIO
+            }, PronunciationLanguage.GERMAN));
+        }
+        List<DeckDefinition> definitions = new ArrayList<>();
+        decksProperties.getDecks().forEach((name, deck) -> {
+            boolean german = PronunciationLanguage.GERMAN.getCode().equals(deck.getLanguage());
+            List<String> articles = deck.getArticles() != null ? deck.getArticles()
+                    : german ? PronunciationLanguage.GERMAN.getArticles() : List.of();
+            String country = deck.getCountry() != null ? deck.getCountry()
+                    : german ? PronunciationLanguage.GERMAN.getCountry() : null;
+            definitions.add(new DeckDefinition(name, deck.getPath(), new String[]{
+                    deck.getTermField(), deck.getTranslationField(), deck.getSampleSentenceField(), deck.getAudioField()
+            }, new PronunciationLanguage(deck.getLanguage(), country, articles)));
+        });
+        return definitions;
+    }
 
-            // Populate the map for quick lookups
-            this.vocabularyMap = this.allVocabulary.stream()
-                    .collect(Collectors.toMap(VocabularyItem::getNoteId, item -> item));
+    // Reloads every deck in parallel; completes when all are done
+    public CompletableFuture<Void> reload() {
+        return CompletableFuture.allOf(decks.values().stream().map(this::reload).toArray(CompletableFuture[]::new));
+    }
 
+    /**
+     * Parses one deck in the background and swaps the new version in once it is complete.
+     * Requests keep being served from the current version meanwhile; if the reload fails, it stays in place.
+     */
+    public CompletableFuture<VocabularyDeck> reload(String deckName) {
+        return reload(slot(deckName));
+    }
 
-            log.info("Successfully loaded {} vocabulary items.", allVocabulary.size());
+    private CompletableFuture<VocabularyDeck> reload(DeckSlot slot) {
+        synchronized (slot) {
+            if (slot.reloadInFlight != null && !slot.reloadInFlight.isDone()) {
+                return slot.reloadInFlight;
+            }
+            slot.reloadInFlight = CompletableFuture.supplyAsync(() -> load(slot), reloadExecutor);
+            return slot.reloadInFlight;
+        }
+    }
 
-        } catch (IOException | SQLException e) {
-            log.error("Failed to load Anki dataset: {}", e.getMessage(), e);
-            // Decide how to handle this error (e.g., throw exception, keep empty list)
-            this.allVocabulary = Collections.emptyList();
-            this.vocabularyMap = Collections.emptyMap();
+    private VocabularyDeck load(DeckSlot slot) {
+        String name = slot.definition.getName();
+        long start = System.nanoTime();
+        try {
+            VocabularyDeck loaded = readDeck(slot.definition, slot::recordPhase);
+            if (loaded.isEmpty()) {
+                // The reader logs and returns nothing for a broken package; never swap that in over a working deck
+                throw new IOException("No notes could be read from " + slot.definition.getPath());
+            }
+            VocabularyDeck deck = loaded.withVersion(slot.versions.incrementAndGet());
+            long indexStart = System.nanoTime();
+            VocabularySearchIndex index = VocabularySearchIndex.build(deck, slot.definition.getLanguage());
+            long indexNanos = System.nanoTime() - indexStart;
+            slot.recordPhase(PHASE_INDEX, indexNanos);
+            log.info("Indexed {} search terms for deck '{}' in {} ms.", index.termCount(), name, indexNanos / 1_000_000);
+            long jsonStart = System.nanoTime();
+            VocabularyJsonFragments json = VocabularyJsonFragments.build(deck, objectMapper);
+            DeckDownload download = DeckDownload.build(json, downloadPageSize);
+            long jsonNanos = System.nanoTime() - jsonStart;
+            slot.recordPhase(PHASE_ENCODE, jsonNanos);
+            log.info("Encoded the JSON of deck '{}' into {} KB in {} ms.", name, json.byteSize() / 1024, jsonNanos / 1_000_000);
+            slot.published.set(new PublishedDeck(deck, index, json, download));
+            slot.lastLoadTimeMs = (System.nanoTime() - start) / 1_000_000;
+            slot.ready = true;
+            slot.loadError = null;
+            log.info("Loaded {} vocabulary items into deck '{}' version {} in {} ms.", deck.size(), name, deck.getVersion(), slot.lastLoadTimeMs);
+            slot.reloadSuccessTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            eventPublisher.publishEvent(new VocabularyLoadedEvent(name, deck.getVersion(), deck.size(), slot.lastLoadTimeMs));
+            return deck;
+        } catch (IOException | SQLException | RuntimeException e) {
+            slot.reloadFailureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!slot.ready) {
+                slot.loadError = e.getMessage();
+                log.error("Failed to load Anki deck '{}', the app stays not ready: {}", name, e.getMessage(), e);
+            } else {
+                log.error("Failed to reload Anki deck '{}', keeping version {}: {}", name, slot.published.get().deck.getVersion(), e.getMessage(), e);
+            }
+            throw new CompletionException(e);
         }
     }
 
-    @Transactional // Ensure saving user words and fetching is atomic if needed
-    public List<VocabularyItem> getNewWordsForUser(ApplicationUser user, int count) {
-        if (allVocabulary.isEmpty()) {
-            log.warn("Vocabulary data is not loaded. Cannot provide words.");
-            return Collections.emptyList();
+    @PreDestroy
+    public void stopReloads() {
+        reloadExecutor.shutdownNow();
+    }
+
+    // Serves the deck from a snapshot of the same .apkg and field mapping when one exists; otherwise parses it and writes the snapshot
+    private VocabularyDeck readDeck(DeckDefinition definition, ObjLongConsumer<String> phaseNanos) throws IOException, SQLException {
+        byte[] checksum = null;
+        Path snapshot = null;
+        Path apkg = Paths.get(definition.getPath());
+        if (snapshotEnabled && Files.isRegularFile(apkg)) {
+            long start = System.nanoTime();
+            checksum = VocabularySnapshotFile.checksum(apkg, definition.getItemFields());
+            snapshot = Paths.get(snapshotDir).resolve(VocabularySnapshotFile.fileName(checksum));
+            if (Files.exists(snapshot)) {
+                try {
+                    VocabularyDeck loaded = VocabularySnapshotFile.read(snapshot, checksum);
+                    phaseNanos.accept(PHASE_SNAPSHOT, System.nanoTime() - start);
+                    log.info("Loaded {} vocabulary items from snapshot {} in {} ms.", loaded.size(), snapshot,
+                            (System.nanoTime() - start) / 1_000_000);
+                    return loaded;
+                } catch (IOException e) {
+                    log.warn("Ignoring unusable vocabulary snapshot {}: {}", snapshot, e.getMessage());
+                }
+            }
+        }
+
+        VocabularyDeck.Builder builder = VocabularyDeck.builder(1024);
+        ankiReader.readVocabularyItems(definition.getPath(), definition.getItemFields(), item -> {
+            if (item.getNoteId() != 0) {
+                builder.add(item);
+            }
+        }, phaseNanos);
+        VocabularyDeck parsed = builder.build();
+
+        if (snapshot != null) {
+            try {
+                VocabularySnapshotFile.write(snapshot, checksum, parsed);
+                log.info("Wrote vocabulary snapshot {}", snapshot);
+            } catch (IOException e) {
+                log.warn("Failed to write vocabulary snapshot {}: {}", snapshot, e.getMessage());
+            }
         }
+        return parsed;
+    }
+
+    public String getDefaultDeck() {
+        return defaultDeck;
+    }
 
-        // 1. Get IDs of words the user has already seen
-        Set<Long> seenNoteIds = userWordRepository.findAnkiNoteIdsByUser(user);
-        log.debug("User {} has seen {} words.", user.getUsername(), seenNoteIds.size());
+    public boolean hasDeck(String deckName) {
+        return decks.containsKey(deckName);
+    }
+
+    public List<DeckDefinition> getDeckDefinitions() {
+        return decks.values().stream().map(slot -> slot.definition).toList();
+    }
 
-        List<VocabularyItem> newWords = new ArrayList<>();
-        List<UserWord> wordsToSave = new ArrayList<>();
-        Set<Long> selectedNewIds = new HashSet<>(); // Track IDs selected in *this* request
+    public VocabularyDeck getDeck() {
+        return getDeck(defaultDeck);
+    }
 
-        // Create a mutable copy to shuffle or work with indices
-        List<VocabularyItem> availableVocabulary = new ArrayList<>(this.allVocabulary);
-        Collections.shuffle(availableVocabulary); // Randomize the order
+    public VocabularyDeck getDeck(String deckName) {
+        return slot(deckName).published.get().deck;
+    }
 
-        for (VocabularyItem item : availableVocabulary) {
-            if (newWords.size() >= count) {
-                break; // We have enough words
+    // True once every configured deck has loaded
+    public boolean isDeckReady() {
+        for (DeckSlot slot : decks.values()) {
+            if (!slot.ready) {
+                return false;
             }
+        }
+        return !decks.isEmpty();
+    }
+
+    public boolean isDeckReady(String deckName) {
+        return slot(deckName).ready;
+    }
 
-            // Check if the word is new for the user AND not already picked in this batch
-            if (!seenNoteIds.contains(item.getNoteId()) && !selectedNewIds.contains(item.getNoteId())) {
-                newWords.add(item);
-                selectedNewIds.add(item.getNoteId());
-                wordsToSave.add(new UserWord(user, item.getNoteId()));
+    // Why a deck that has never loaded failed, or null
+    public String getLoadError() {
+        for (DeckSlot slot : decks.values()) {
+            if (slot.loadError != null) {
+                return slot.definition.getName() + ": " + slot.loadError;
             }
         }
+        return null;
+    }
+
+    public List<DeckStatus> getDeckStatus() {
+        List<DeckStatus> statuses = new ArrayList<>(decks.size());
+        for (DeckSlot slot : decks.values()) {
+            VocabularyDeck deck = slot.published.get().deck;
+            boolean reloading;
+            synchronized (slot) {
+                reloading = slot.reloadInFlight != null && !slot.reloadInFlight.isDone();
+            }
+            statuses.add(new DeckStatus(slot.definition.getName(), slot.ready, deck.getVersion(), deck.size(), reloading,
+                    slot.lastLoadTimeMs, slot.loadError));
+        }
+        return statuses;
+    }
+
+    public List<VocabularyItem> getNewWordsForUser(ApplicationUser user, int count) {
+        return getNewWordsForUser(user, defaultDeck, count);
+    }
+
+    public List<VocabularyItem> getNewWordsForUser(ApplicationUser user, String deckName, int count) {
+        DeckSlot slot = readySlot(deckName);
+        VocabularyDeck deck = slot.published.get().deck;
+        List<VocabularyItem> newWords = items(deck, handOutInTransaction(user, slot, deck, count));
+        return pronunciationService.enrich(newWords, slot.definition.getLanguage());
+    }
+
+    // The same hand-out, written from the deck's pre-encoded JSON with only the audio filled in per request
+    public VocabularyItemsJson getNewWordsJsonForUser(ApplicationUser user, String deckName, int count) {
+        DeckSlot slot = readySlot(deckName);
+        // The fragments carry the deck they were encoded from, so the drawn ordinals resolve against them
+        VocabularyJsonFragments fragments = slot.published.get().json;
+        VocabularyDeck deck = fragments.getDeck();
+        int[] ordinals = handOutInTransaction(user, slot, deck, count);
+
+        List<String> words = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            words.add(deck.german(ordinal));
+        }
+        String[] audio = pronunciationService.resolve(words, slot.definition.getLanguage());
+        for (int i = 0; i < ordinals.length; i++) {
+            if (audio[i] == null) {
+                audio[i] = deck.audio(ordinals[i]);
+            }
+        }
+        return new VocabularyItemsJson(fragments, ordinals, audio);
+    }
+
+    // The current version of the deck for download; reading it hands nothing out
+    public DeckDownload getDeckDownload(String deckName) {
+        return readySlot(deckName).published.get().download;
+    }
+
+    // The same hand-out, with the words streamed before their pronunciations are resolved
+    public Flux<NewWordEvent> streamNewWordsForUser(ApplicationUser user, String deckName, int count) {
+        DeckSlot slot = readySlot(deckName);
+        VocabularyDeck deck = slot.published.get().deck;
+        List<VocabularyItem> newWords = items(deck, handOutInTransaction(user, slot, deck, count));
+        return pronunciationService.enrichAsStream(newWords, slot.definition.getLanguage());
+    }
+
+    private DeckSlot readySlot(String deckName) {
+        DeckSlot slot = slot(deckName);
+        if (!slot.ready) {
+            throw new VocabularyNotReadyException(slot.loadError);
+        }
+        return slot;
+    }
+
+    private static List<VocabularyItem> items(VocabularyDeck deck, int[] ordinals) {
+        List<VocabularyItem> items = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            items.add(deck.item(ordinal));
+        }
+        return items;
+    }
 
+    // The hand-out commits before enrichment starts: waiting on Forvo inside the transaction held a pooled
+    // connection for up to the enrichment deadline, while enrichment's own lookups needed a second one
+    private int[] handOutInTransaction(ApplicationUser user, DeckSlot slot, VocabularyDeck deck, int count) {
+        return new TransactionTemplate(transactionManager)
+                .execute(status -> handOut(user, slot, deck, count));
+    }
 
-        List<VocabularyItem> enrichedWords = newWords.stream()
-                .map(item -> {
-                    VocabularyItem enrichedItem = new VocabularyItem(item); // Creates a copy
-                    String germanWord = cleanWordForApi(item.getGerman());
-
-                    if (germanWord != null && !germanWord.isEmpty()) {
-                        try {
-                            // Step 1: Get the Optional<Optional<String>>
-                            Optional<Optional<String>> outerOptional = fetchPronunciationUrl(germanWord)
-                                    .blockOptional(Duration.ofSeconds(5));
-
-                            // Step 2: Check outer Optional AND THEN inner Optional
-                            if (outerOptional.isPresent()) {
-                                Optional<String> innerOptional = outerOptional.get(); // Get the inner Optional<String>
-
-                                if (innerOptional.isPresent()) {
-                                    // Step 3: Get the actual String URL from the inner Optional
-                                    String actualUrl = innerOptional.get();
-                                    log.debug("Found Forvo URL for '{}': {}", germanWord, actualUrl);
-                                    // Step 4: Set the extracted String URL on the item
-                                    enrichedItem.setAudio(actualUrl);
-                                    log.debug("DEBUG: Set enrichedItem audio to: {}", enrichedItem.getAudio());
-                                } else {
-                                    // Inner Optional was empty (Forvo returned no URL)
-                                    log.warn("No Forvo URL found for word: {}", germanWord);
-                                    log.debug("DEBUG: Keeping original audio for {}: {}", germanWord, enrichedItem.getAudio());
-                                    // Keep original audio (already in copy)
-                                }
-                            } else {
-                                // Outer Optional was empty (blockOptional timed out or Mono completed empty)
-                                log.warn("Forvo fetch timed out or completed empty for word: {}", germanWord);
-                                log.debug("DEBUG: Keeping original audio for {}: {}", germanWord, enrichedItem.getAudio());
-                                // Keep original audio (already in copy)
-                            }
-                        } catch (Exception e) {
-                            log.error("Error processing Forvo pronunciation for '{}': {}", germanWord, e.getMessage());
-                            log.debug("DEBUG: Keeping original audio for {} due to exception: {}", germanWord, enrichedItem.getAudio());
-                            // Keep original audio value (already present in the copy)
-                        }
-                    } else {
-                        log.debug("DEBUG: Skipping Forvo for null/empty German word from item ID {}", item.getNoteId());
-                    }
-                    return enrichedItem; // Return the (potentially) modified copy
-                })
-                .collect(Collectors.toList());
+    // Draws up to count unseen notes of the deck for the user and records them as seen; returns their ordinals
+    private int[] handOut(ApplicationUser user, DeckSlot slot, VocabularyDeck deck, int count) {
+        // 1. The user's seen notes as a bitmap over deck ordinals, cached across requests
+        long selectionStart = System.nanoTime();
+        SeenNotesCache.Snapshot snapshot = seenNotesCache.get(user.getId(), slot.definition.getName(), deck);
+
+        // 2. Draw unseen ordinals; the sampler marks them in this copy, which becomes the cached bitmap after the insert
+        BitSet seen = snapshot.copySeen();
+        int[] picked = UnseenWordSampler.sample(seen, deck.size(), count, ThreadLocalRandom.current(), slot);
+        slot.selectionTimer.record(System.nanoTime() - selectionStart, TimeUnit.NANOSECONDS);
+
+        List<UserWord> wordsToSave = new ArrayList<>(picked.length);
+        long[] noteIds = new long[picked.length];
+        for (int i = 0; i < picked.length; i++) {
+            noteIds[i] = deck.noteId(picked[i]);
+            wordsToSave.add(new UserWord(user, noteIds[i]));
+        }
 
         // 3. Save the newly assigned words to the database
         if (!wordsToSave.isEmpty()) {
-            userWordRepository.saveAll(wordsToSave);
+            userWordRepository.insertAll(wordsToSave);
+            seenNotesCache.recordHandedOut(snapshot, seen, noteIds);
             log.info("Saved {} new words for user {}", wordsToSave.size(), user.getUsername());
         } else {
             log.info("No new words found for user {} (or vocabulary exhausted).", user.getUsername());
         }
+        return picked;
+    }
+
+    // The note from whichever loaded deck holds it, or null; note ids are unique across decks
+    public VocabularyItem findItem(long noteId) {
+        for (DeckSlot slot : decks.values()) {
+            VocabularyDeck deck = slot.published.get().deck;
+            int ordinal = deck.ordinalOf(noteId);
+            if (ordinal >= 0) {
+                return deck.item(ordinal);
+            }
+        }
+        return null;
+    }
+
+    // Best matches for the query in the deck's term, translation and sample sentence, best first
+    public List<VocabularyItem> search(String deckName, String query, int limit) {
+        DeckSlot slot = slot(deckName);
+        if (!slot.ready) {
+            throw new VocabularyNotReadyException(slot.loadError);
+        }
+        // The index carries the deck version it was built from, so ordinals can't outrun a concurrent reload
+        VocabularySearchIndex index = slot.published.get().index;
+        VocabularyDeck deck = index.getDeck();
+        int[] ordinals = index.search(query, limit);
+        List<VocabularyItem> results = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            results.add(deck.item(ordinal));
+        }
+        return results;
+    }
+
+    private DeckSlot slot(String deckName) {
+        DeckSlot slot = decks.get(deckName);
+        if (slot == null) {
+            throw new UnknownDeckException(deckName);
+        }
+        return slot;
+    }
+
+    // One version of a deck with everything derived from it, built before it is published and never changed after
+    private static final class PublishedDeck {
+        private static final PublishedDeck EMPTY = new PublishedDeck(VocabularyDeck.EMPTY, VocabularySearchIndex.EMPTY,
+                VocabularyJsonFragments.EMPTY, DeckDownload.EMPTY);
+
+        private final VocabularyDeck deck;
+        private final VocabularySearchIndex index;
+        private final VocabularyJsonFragments json;
+        private final DeckDownload download;
+
+        private PublishedDeck(VocabularyDeck deck, VocabularySearchIndex index, VocabularyJsonFragments json, DeckDownload download) {
+            this.deck = deck;
+            this.index = index;
+            this.json = json;
+            this.download = download;
+        }
+    }
+
+    // Notes are addressed by ordinal (deck position), which is also what the unseen-word sampler draws.
+    // Readers take one get() per request and keep using that deck version even if a reload swaps in a new one;
+    // the deck, its index, its JSON and its download are swapped together, so no reader sees parts of two versions.
+    private static final class DeckSlot implements UnseenWordSampler.Observer {
+        private final DeckDefinition definition;
+        private final AtomicReference<PublishedDeck> published = new AtomicReference<>(PublishedDeck.EMPTY);
+        private final AtomicLong versions = new AtomicLong();
+        // Guarded by the slot; reload requests that arrive while one is running share its result
+        private CompletableFuture<VocabularyDeck> reloadInFlight;
+        private volatile long lastLoadTimeMs;
+        // Set once the first version is published; until then there is nothing to serve
+        private volatile boolean ready;
+        // Why the first load failed, while no version has been published yet
+        private volatile String loadError;
+        private final MeterRegistry meterRegistry;
+        private final Timer reloadSuccessTimer;
+        private final Timer reloadFailureTimer;
+        // Seen-set lookup and draw of one hand-out, without the insert
+        private final Timer selectionTimer;
+        private final DistributionSummary probedCandidates;
+        private final DistributionSummary scannedCandidates;
+
+        private DeckSlot(DeckDefinition definition, MeterRegistry meterRegistry) {
+            this.definition = definition;
+            this.meterRegistry = meterRegistry;
+            String deck = definition.getName();
+            this.reloadSuccessTimer = Timer.builder("vocabulary.deck.reload").tags("deck", deck, "result", "success").register(meterRegistry);
+            this.reloadFailureTimer = Timer.builder("vocabulary.deck.reload").tags("deck", deck, "result", "failure").register(meterRegistry);
+            Gauge.builder("vocabulary.deck.version", published, ref -> ref.get().deck.getVersion()).tag("deck", deck).register(meterRegistry);
+            Gauge.builder("vocabulary.deck.notes", published, ref -> ref.get().deck.size()).tag("deck", deck).register(meterRegistry);
+            this.selectionTimer = Timer.builder("vocabulary.selection").tag("deck", deck)
+                    .publishPercentileHistogram().register(meterRegistry);
+            this.probedCandidates = DistributionSummary.builder("vocabulary.selection.candidates")
+                    .description("Candidate ordinals examined per hand-out").tags("deck", deck, "method", "probe").register(meterRegistry);
+            this.scannedCandidates = DistributionSummary.builder("vocabulary.selection.candidates")
+                    .description("Candidate ordinals examined per hand-out").tags("deck", deck, "method", "scan").register(meterRegistry);
+        }
+
+        // Load phases run once per reload, so their timers are looked up rather than kept
+        private void recordPhase(String phase, long nanos) {
+            Timer.builder("vocabulary.deck.load.phase").tags("deck", definition.getName(), "phase", phase)
+                    .register(meterRegistry).record(nanos, TimeUnit.NANOSECONDS);
+        }
 
-        return enrichedWords;
-    }
-
-    private String cleanWordForApi(String word) {
-        // ... (keep existing cleaning logic) ...
-        if (word == null) return null;
-        word = word.replaceFirst("^(der|die|das|ein|eine)\\s+", "").trim();
-        word = word.replaceAll("\\(.*\\)", "").trim();
-        return word;
-    }
-
-    private Mono<Optional<String>> fetchPronunciationUrl(String word) {
-        log.debug("Fetching Forvo pronunciation for: {} (Country: DEU)", word);
-        return webClient.get()
-                .uri(uriBuilder -> uriBuilder
-                        // Path includes required params as path variables
-                        .path("/key/{key}/format/json/action/word-pronunciations/word/{word}/language/de")
-                        // Add optional country filter as a query parameter
-                        .queryParam("country", "DEU") // <-- ADDED COUNTRY FILTER
-                        .build(forvoApiKey, word)) // Pass values for path variables {key} and {word}
-                .retrieve()
-                .bodyToMono(ForvoResponse.class) // Use simplified POJO
-                .map(forvoResponse -> {
-                    if (forvoResponse != null && forvoResponse.getItems() != null && !forvoResponse.getItems().isEmpty()) {
-                        // Find first non-null, non-empty mp3 path
-                        return forvoResponse.getItems().stream()
-                                .map(ForvoItem::getPathMp3) // Use simplified POJO
-                                .filter(Objects::nonNull)
-                                .filter(url -> !url.isEmpty())
-                                .findFirst();
-                    }
-                    return Optional.<String>empty();
-                })
-                .doOnError(WebClientResponseException.class, e -> {
-                    log.error("Forvo API error for word '{}': Status {}, Body {}", word, e.getStatusCode(), e.getResponseBodyAsString(), e);
-                })
-                .onErrorResume(e -> {
-                    log.error("Failed to get Forvo data for word '{}' due to: {}", word, e.getMessage());
-                    return Mono.just(Optional.empty()); // Return empty on error
-                });
+        // The exact scan only runs on a nearly finished deck; how often it does is its count
+        @Override
+        public void sampled(int probes, int scanned) {
+            probedCandidates.record(probes);
+            if (scanned > 0) {
+                scannedCandidates.record(scanned);
+            }
+        }
     }
 }
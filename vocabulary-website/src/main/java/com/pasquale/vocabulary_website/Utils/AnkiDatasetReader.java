@@ -1,7 +1,10 @@
 package com.pasquale.vocabulary_website.Utils;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pasquale.vocabulary_website.Entity.VocabularyItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 
@@ -11,101 +14,340 @@ import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 @Component
 public class AnkiDatasetReader {
+    private static final Logger log = LoggerFactory.getLogger(AnkiDatasetReader.class);
 
     private static final ObjectMapper mapper = new ObjectMapper();
     // Field separator used in Anki notes.flds column
-    private static final String FIELD_SEPARATOR = "\u001f";
+    private static final char FIELD_SEPARATOR = '\u001f';
 
+    // Default Anki fields a VocabularyItem is built from (term, translation, sample sentence, audio)
+    private static final String[] ITEM_FIELDS = {
+            VocabularyItem.FIELD_GERMAN, VocabularyItem.FIELD_ENGLISH, VocabularyItem.FIELD_SAMPLE_SENTENCE, VocabularyItem.FIELD_AUDIO
+    };
+
+    // Load phases reported to readVocabularyItems' phase listener
+    public static final String PHASE_EXTRACT = "extract";
+    public static final String PHASE_PARSE = "parse";
+
+    // Chunks per worker: rowid ranges are split evenly, so extra chunks even out gaps in the id space
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    // Number of threads parsing notes at load time; 0 means one per available core
+    private int workers;
+
+    // Works on the extracted collection while its temporary file exists
+    private interface CollectionReader {
+        void read(String dbUrl, Connection connection, Map<Long, Map<String, Object>> models) throws IOException, SQLException;
+    }
+
+    // Turns one notes row into what the sink receives; called from several loader threads at once
+    private interface NoteMapper<T> {
+        T map(long noteId, long modelId, String fieldsString);
+    }
+
+    public AnkiDatasetReader() {
+        this(0);
+    }
+
+    public AnkiDatasetReader(int workers) {
+        setWorkers(workers);
+    }
+
+    @Value("${anki.loader.workers:0}")
+    public void setWorkers(int workers) {
+        this.workers = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Streams the deck as VocabularyItems without building an intermediate map per note.
+     * Field positions are resolved once per model; only the four fields an item needs are cut
+     * out of each note's flds value. The notes table is split into rowid ranges that are parsed in
+     * parallel, each on its own SQLite connection; items still reach the sink in rowid order.
+     */
+    public void readVocabularyItems(String apkgFilePath, Consumer<VocabularyItem> sink) throws IOException, SQLException {
+        readVocabularyItems(apkgFilePath, ITEM_FIELDS, sink);
+    }
+
+    // Same as above with the deck's own field names, given in ITEM_FIELDS order
+    public void readVocabularyItems(String apkgFilePath, String[] itemFields, Consumer<VocabularyItem> sink) throws IOException, SQLException {
+        readVocabularyItems(apkgFilePath, itemFields, sink, (phase, nanos) -> {});
+    }
+
+    // Also reports how long each phase took: PHASE_EXTRACT (unzipping the collection) and PHASE_PARSE (reading the notes)
+    public void readVocabularyItems(String apkgFilePath, String[] itemFields, Consumer<VocabularyItem> sink,
+                                    ObjLongConsumer<String> phaseNanos) throws IOException, SQLException {
+        readCollection(apkgFilePath, phaseNanos, (dbUrl, connection, models) -> {
+            Map<Long, int[]> fieldIndexesByModel = new HashMap<>();
+            for (Map.Entry<Long, Map<String, Object>> model : models.entrySet()) {
+                int[] fieldIndexes = resolveFieldIndexes(model.getValue(), itemFields);
+                if (fieldIndexes != null) {
+                    fieldIndexesByModel.put(model.getKey(), fieldIndexes);
+                }
+            }
+
+            readNotes(dbUrl, connection, (noteId, modelId, fieldsString) -> {
+                int[] fieldIndexes = fieldIndexesByModel.get(modelId);
+                if (fieldIndexes == null) {
+                    // Unknown model: same as the map-based path, an item without fields
+                    return new VocabularyItem(noteId, modelId, null, null, null, null);
+                }
+                String[] values = extractFields(fieldsString, fieldIndexes);
+                return new VocabularyItem(noteId, modelId, values[0], values[1], values[2], values[3]);
+            }, sink);
+        });
+    }
+
+    public List<VocabularyItem> readVocabularyItems(String apkgFilePath) throws IOException, SQLException {
+        List<VocabularyItem> items = new ArrayList<>();
+        readVocabularyItems(apkgFilePath, items::add);
+        return items;
+    }
+
+    /**
+     * Streams every note as a map with all of its fields by name: noteId, modelId and either "fields"
+     * (field name to value, in model order) or, when the note's model is unknown, the undivided "rawFields".
+     * Read the same way as readVocabularyItems, in parallel and in rowid order.
+     */
+    public void readAnkiNotes(String apkgFilePath, Consumer<Map<String, Object>> sink) throws IOException, SQLException {
+        readCollection(apkgFilePath, (phase, nanos) -> {}, (dbUrl, connection, models) -> {
+            Map<Long, String[]> fieldNamesByModel = new HashMap<>();
+            for (Map.Entry<Long, Map<String, Object>> model : models.entrySet()) {
+                String[] fieldNames = resolveFieldNames(model.getValue());
+                if (fieldNames != null) {
+                    fieldNamesByModel.put(model.getKey(), fieldNames);
+                }
+            }
+
+            readNotes(dbUrl, connection, (noteId, modelId, fieldsString) -> {
+                Map<String, Object> note = new LinkedHashMap<>();
+                note.put("noteId", noteId);
+                note.put("modelId", modelId);
+                String[] fieldNames = fieldNamesByModel.get(modelId);
+                if (fieldNames == null) {
+                    note.put("rawFields", fieldsString);
+                    return note;
+                }
+                int[] allFields = new int[fieldNames.length];
+                Arrays.setAll(allFields, i -> i);
+                String[] values = extractFields(fieldsString, allFields);
+                Map<String, String> fields = new LinkedHashMap<>();
+                for (int i = 0; i < fieldNames.length; i++) {
+                    fields.put(fieldNames[i], values[i]);
+                }
+                note.put("fields", fields);
+                return note;
+            }, sink);
+        });
+    }
+
+    // Every note collected from readAnkiNotes. Keeps this method's old contract: log and return what was read.
+    // The throws clause stays too, so callers written against it still compile
     public List<Map<String, Object>> readAnkiDataset(String apkgFilePath) throws IOException, SQLException {
-        Path tempDbPath = null;
-        Connection connection = null;
-        List<Map<String, Object>> notesData = new ArrayList<>();
+        List<Map<String, Object>> notes = new ArrayList<>();
+        try {
+            readAnkiNotes(apkgFilePath, notes::add);
+        } catch (Exception e) {
+            log.error("Error processing Anki dataset: {}", e.getMessage(), e);
+        }
+        return notes;
+    }
 
+    // Maps every note in rowid order. The table is split into rowid ranges parsed in parallel, each on its own connection
+    private <T> void readNotes(String dbUrl, Connection connection, NoteMapper<T> mapper, Consumer<T> sink) throws IOException, SQLException {
+        long[] bounds = rowidBounds(connection);
+        if (bounds == null) {
+            return; // No notes
+        }
+        List<long[]> ranges = splitRange(bounds[0], bounds[1], workers == 1 ? 1 : workers * CHUNKS_PER_WORKER);
+        if (ranges.size() == 1) {
+            readNotes(connection, ranges.get(0), mapper, sink);
+            return;
+        }
+
+        // CPU-bound and inside SQLite's native code, so platform threads whatever spring.threads.virtual.enabled says
+        int threads = Math.min(workers, ranges.size());
+        ExecutorService pool = Executors.newFixedThreadPool(threads, ThreadFactories.platform("anki-loader"));
         try {
-            // 1. Extract the SQLite database file from the .apkg (zip)
-            tempDbPath = extractCollectionDb(apkgFilePath);
-            if (tempDbPath == null) {
-                System.err.println("Could not find collection.anki2 or collection.anki21 in the package.");
-                return Collections.emptyList();
+            // Chunks go to the sink in range order, as soon as the oldest one is done. Only a window of them
+            // is parsed ahead, so at most a few chunks are held besides what the sink keeps, not a second deck
+            int window = threads + 1;
+            Deque<Future<List<T>>> pending = new ArrayDeque<>(window);
+            int next = 0;
+            while (next < ranges.size() && pending.size() < window) {
+                pending.add(submitChunk(pool, dbUrl, ranges.get(next++), mapper));
             }
+            while (!pending.isEmpty()) {
+                List<T> chunk = pending.poll().get();
+                if (next < ranges.size()) {
+                    pending.add(submitChunk(pool, dbUrl, ranges.get(next++), mapper));
+                }
+                chunk.forEach(sink);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading Anki notes", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) throw sqlException;
+            if (cause instanceof IOException ioException) throw ioException;
+            throw new IOException("Failed to parse Anki notes", cause);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Parses one rowid range on its own connection
+    private static <T> Future<List<T>> submitChunk(ExecutorService pool, String dbUrl, long[] range, NoteMapper<T> mapper) {
+        return pool.submit(() -> {
+            List<T> notes = new ArrayList<>();
+            try (Connection chunkConnection = DriverManager.getConnection(dbUrl)) {
+                readNotes(chunkConnection, range, mapper, notes::add);
+            }
+            return notes;
+        });
+    }
 
-            // 2. Connect to the extracted SQLite database
-            String dbUrl = "jdbc:sqlite:" + tempDbPath.toAbsolutePath();
-            // Ensure SQLite JDBC driver is in the classpath
-            // Class.forName("org.sqlite.JDBC"); // Usually not needed with modern JDBC
-            connection = DriverManager.getConnection(dbUrl);
-            System.out.println("Connected to Anki database.");
+    private void readCollection(String apkgFilePath, ObjLongConsumer<String> phaseNanos, CollectionReader reader) throws IOException, SQLException {
+        // 1. Extract the SQLite database file from the .apkg (zip)
+        long start = System.nanoTime();
+        Path tempDbPath = extractCollectionDb(apkgFilePath);
+        phaseNanos.accept(PHASE_EXTRACT, System.nanoTime() - start);
+        if (tempDbPath == null) {
+            log.error("Could not find collection.anki2 or collection.anki21 in the package.");
+            return;
+        }
+
+        // 2. Connect to the extracted SQLite database
+        String dbUrl = "jdbc:sqlite:" + tempDbPath.toAbsolutePath();
+        try (Connection connection = DriverManager.getConnection(dbUrl)) {
+            log.debug("Connected to Anki database.");
 
             // 3. Get Note Type (Model) definitions from 'col' table
+            start = System.nanoTime();
             Map<Long, Map<String, Object>> models = getModels(connection);
             if (models.isEmpty()) {
-                System.err.println("Could not read models from collection.");
-                return Collections.emptyList();
+                log.error("Could not read models from collection.");
+                return;
             }
 
-            // 4. Query the 'notes' table
-            String sql = "SELECT id, mid, flds FROM notes"; // mid = model id, flds = fields
-            try (Statement stmt = connection.createStatement();
-                 ResultSet rs = stmt.executeQuery(sql)) {
+            // 4. Read the 'notes' table
+            reader.read(dbUrl, connection, models);
+            phaseNanos.accept(PHASE_PARSE, System.nanoTime() - start);
+        } finally {
+            // 5. Clean up the temporary file
+            try {
+                Files.delete(tempDbPath);
+                log.debug("Deleted temporary database file: {}", tempDbPath);
+            } catch (IOException e) {
+                log.warn("Error deleting temporary database file: {}", e.getMessage());
+            }
+        }
+    }
 
+    // Notes with rowid in [range[0], range[1]], in rowid order
+    private static <T> void readNotes(Connection connection, long[] range, NoteMapper<T> mapper, Consumer<T> sink) throws SQLException {
+        String sql = "SELECT id, mid, flds FROM notes WHERE rowid BETWEEN ? AND ? ORDER BY rowid"; // mid = model id, flds = fields
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setLong(1, range[0]);
+            stmt.setLong(2, range[1]);
+            try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    long noteId = rs.getLong("id");
-                    long modelId = rs.getLong("mid");
-                    String fieldsString = rs.getString("flds");
-
-                    Map<String, Object> noteMap = new LinkedHashMap<>(); // Use LinkedHashMap to preserve field order
-                    noteMap.put("noteId", noteId);
-                    noteMap.put("modelId", modelId);
-
-                    // Get the field names for this note's model
-                    Map<String, Object> model = models.get(modelId);
-                    if (model != null && model.containsKey("flds")) {
-                        @SuppressWarnings("unchecked")
-                        List<Map<String, Object>> fieldsDefinition = (List<Map<String, Object>>) model.get("flds");
-                        String[] fieldValues = fieldsString.split(FIELD_SEPARATOR, -1); // -1 to keep trailing empty strings
-
-                        Map<String, String> fieldsMap = new LinkedHashMap<>();
-                        for (int i = 0; i < fieldsDefinition.size(); i++) {
-                            String fieldName = (String) fieldsDefinition.get(i).getOrDefault("name", "field_" + i);
-                            String fieldValue = (i < fieldValues.length) ? fieldValues[i] : ""; // Handle cases where data might have fewer fields than definition
-                            fieldsMap.put(fieldName, fieldValue);
-                        }
-                        noteMap.put("fields", fieldsMap);
-                    } else {
-                        // Fallback if model definition not found (less useful)
-                        noteMap.put("rawFields", fieldsString);
-                    }
-                    notesData.add(noteMap);
+                    sink.accept(mapper.map(rs.getLong(1), rs.getLong(2), rs.getString(3)));
                 }
             }
+        }
+    }
 
-        } catch (Exception e) { // Catch broader exceptions for simplicity here
-            System.err.println("Error processing Anki dataset: " + e.getMessage());
-            e.printStackTrace(); // Print stack trace for debugging
-        } finally {
-            // 5. Clean up: Close connection and delete temporary file
-            if (connection != null) {
-                try {
-                    connection.close();
-                    System.out.println("Database connection closed.");
-                } catch (SQLException e) {
-                    System.err.println("Error closing database connection: " + e.getMessage());
+    // Smallest and largest rowid in notes, or null when the table is empty
+    private static long[] rowidBounds(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT min(rowid), max(rowid) FROM notes")) {
+            if (rs.next()) {
+                long min = rs.getLong(1);
+                if (!rs.wasNull()) {
+                    return new long[]{min, rs.getLong(2)};
                 }
             }
-            if (tempDbPath != null) {
-                try {
-                    Files.delete(tempDbPath);
-                    System.out.println("Deleted temporary database file: " + tempDbPath);
-                } catch (IOException e) {
-                    System.err.println("Error deleting temporary database file: " + e.getMessage());
+        }
+        return null;
+    }
+
+    // Splits [min, max] into at most `parts` contiguous, non-overlapping inclusive ranges
+    private static List<long[]> splitRange(long min, long max, int parts) {
+        long span = max - min + 1;
+        int count = (int) Math.max(1, Math.min(parts, span));
+        List<long[]> ranges = new ArrayList<>(count);
+        long start = min;
+        for (int i = 0; i < count; i++) {
+            long end = (i == count - 1) ? max : min + span * (i + 1) / count - 1;
+            ranges.add(new long[]{start, end});
+            start = end + 1;
+        }
+        return ranges;
+    }
+
+    // Position of each item field name in the model's field list (-1 if absent), or null if the model has no fields
+    private static int[] resolveFieldIndexes(Map<String, Object> model, String[] itemFields) {
+        if (!model.containsKey("flds")) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> fieldsDefinition = (List<Map<String, Object>>) model.get("flds");
+        int[] fieldIndexes = new int[itemFields.length];
+        Arrays.fill(fieldIndexes, -1);
+        for (int i = 0; i < fieldsDefinition.size(); i++) {
+            Object name = fieldsDefinition.get(i).getOrDefault("name", "field_" + i);
+            for (int f = 0; f < itemFields.length; f++) {
+                if (itemFields[f].equals(name) && fieldIndexes[f] < 0) {
+                    fieldIndexes[f] = i;
                 }
             }
         }
-        return notesData;
+        return fieldIndexes;
+    }
+
+    // Every field name of the model in order, or null if the model has no fields
+    private static String[] resolveFieldNames(Map<String, Object> model) {
+        if (!model.containsKey("flds")) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> fieldsDefinition = (List<Map<String, Object>>) model.get("flds");
+        String[] fieldNames = new String[fieldsDefinition.size()];
+        for (int i = 0; i < fieldNames.length; i++) {
+            fieldNames[i] = (String) fieldsDefinition.get(i).getOrDefault("name", "field_" + i);
+        }
+        return fieldNames;
+    }
+
+    // Single pass over flds that only materializes the wanted fields, in fieldIndexes order; missing ones become ""
+    private static String[] extractFields(String fieldsString, int[] fieldIndexes) {
+        String[] values = new String[fieldIndexes.length];
+        Arrays.fill(values, "");
+        int fieldIndex = 0;
+        int start = 0;
+        int length = fieldsString.length();
+        while (start <= length) {
+            int end = fieldsString.indexOf(FIELD_SEPARATOR, start);
+            if (end < 0) {
+                end = length;
+            }
+            for (int f = 0; f < fieldIndexes.length; f++) {
+                if (fieldIndexes[f] == fieldIndex) {
+                    values[f] = fieldsString.substring(start, end);
+                }
+            }
+            fieldIndex++;
+            start = end + 1;
+        }
+        return values;
     }
 
     // Helper to extract the SQLite DB file
@@ -118,13 +360,17 @@ public class AnkiDatasetReader {
                 String entryName = entry.getName();
                 // Look for the main database file
                 if (entryName.equals("collection.anki2") || entryName.equals("collection.anki21")) {
-                    System.out.println("Extracting: " + entryName);
+                    log.debug("Extracting: {}", entryName);
                     Files.copy(zis, tempFile, StandardCopyOption.REPLACE_EXISTING);
                     found = true;
                     break; // Found the file, no need to continue
                 }
                 zis.closeEntry(); // Important to close entry if not reading fully
             }
+        } finally {
+            if (!found) {
+                Files.deleteIfExists(tempFile);
+            }
         }
         return found ? tempFile : null;
     }
@@ -146,7 +392,7 @@ public class AnkiDatasetReader {
                     try {
                         modelsWithLongKeys.put(Long.parseLong(entry.getKey()), entry.getValue());
                     } catch (NumberFormatException e) {
-                        System.err.println("Warning: Could not parse model ID: " + entry.getKey());
+                        log.warn("Could not parse model ID: {}", entry.getKey());
                     }
                 }
                 return modelsWithLongKeys;
@@ -156,4 +402,3 @@ public class AnkiDatasetReader {
         return Collections.emptyMap();
     }
 }
-
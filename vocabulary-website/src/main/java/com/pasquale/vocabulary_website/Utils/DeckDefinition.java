@@ -0,0 +1,20 @@
+package com.pasquale.vocabulary_website.Utils;
+
+import lombok.Getter;
+
+// A configured deck: where its .apkg lives, which Anki fields fill a VocabularyItem and how its words are pronounced
+@Getter
+public class DeckDefinition {
+    private final String name;
+    private final String path;
+    // Anki field names for the item's term, translation, sample sentence and audio, in that order
+    private final String[] itemFields;
+    private final PronunciationLanguage language;
+
+    public DeckDefinition(String name, String path, String[] itemFields, PronunciationLanguage language) {
+        this.name = name;
+        this.path = path;
+        this.itemFields = itemFields.clone();
+        this.language = language;
+    }
+}
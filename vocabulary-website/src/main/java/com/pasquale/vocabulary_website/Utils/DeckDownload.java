@@ -0,0 +1,117 @@
+package com.pasquale.vocabulary_website.Utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * One deck version as a read-only JSON download, whole or in fixed-size pages, each note with its Anki audio.
+ * A body is gzipped once, on its first request, and kept for as long as the version is current. ETags come
+ * from a digest of the deck's JSON, so every instance serving the same content hands out the same ones.
+ */
+public final class DeckDownload {
+    public static final DeckDownload EMPTY = build(VocabularyJsonFragments.EMPTY, 1);
+
+    // Pages are numbered from 0; WHOLE_DECK stands for the deck in one body
+    public static final int WHOLE_DECK = -1;
+
+    private final VocabularyJsonFragments fragments;
+    private final int pageSize;
+    private final String digest;
+    // Page -> its gzipped body; the first request for a page compresses it and concurrent ones wait for that
+    private final Map<Integer, CompletableFuture<byte[]>> gzipped = new ConcurrentHashMap<>();
+
+    private DeckDownload(VocabularyJsonFragments fragments, int pageSize, String digest) {
+        this.fragments = fragments;
+        this.pageSize = pageSize;
+        this.digest = digest;
+    }
+
+    public static DeckDownload build(VocabularyJsonFragments fragments, int pageSize) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            try (OutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), sha256)) {
+                fragments.writeRange(0, fragments.getDeck().size(), out);
+            }
+            return new DeckDownload(fragments, Math.max(1, pageSize), HexFormat.of().formatHex(sha256.digest(), 0, 16));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public int size() {
+        return fragments.getDeck().size();
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int pageCount() {
+        return (size() + pageSize - 1) / pageSize;
+    }
+
+    public boolean hasPage(int page) {
+        return page == WHOLE_DECK || (page >= 0 && page < pageCount());
+    }
+
+    // Strong ETag of one representation: the compressed and the plain body of a page are different bytes
+    public String etag(int page, boolean gzip) {
+        String tag = page == WHOLE_DECK ? digest : digest + "-" + pageSize + "-" + page;
+        return "\"" + (gzip ? tag + "-gzip" : tag) + "\"";
+    }
+
+    public void write(int page, OutputStream out) throws IOException {
+        fragments.writeRange(from(page), to(page), out);
+    }
+
+    public byte[] gzipped(int page) {
+        CompletableFuture<byte[]> body = gzipped.get(page);
+        if (body == null) {
+            CompletableFuture<byte[]> compressing = new CompletableFuture<>();
+            body = gzipped.putIfAbsent(page, compressing);
+            if (body == null) {
+                body = compressing;
+                try {
+                    compressing.complete(compress(page));
+                } catch (RuntimeException e) {
+                    gzipped.remove(page);
+                    compressing.completeExceptionally(e);
+                }
+            }
+        }
+        return body.join();
+    }
+
+    private byte[] compress(int page) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer, 64 * 1024) {
+            { def.setLevel(Deflater.BEST_COMPRESSION); } // Paid once per page and version
+        }) {
+            write(page, gzip);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private int from(int page) {
+        return page == WHOLE_DECK ? 0 : page * pageSize;
+    }
+
+    private int to(int page) {
+        return page == WHOLE_DECK ? size() : Math.min(size(), (page + 1) * pageSize);
+    }
+}
@@ -0,0 +1,24 @@
+package com.pasquale.vocabulary_website.Utils;
+
+import lombok.Getter;
+
+@Getter
+public class DeckStatus {
+    private final String deck;
+    private final boolean ready;
+    private final long version;
+    private final int notes;
+    private final boolean reloading;
+    private final long lastLoadTimeMs;
+    private final String loadError;
+
+    public DeckStatus(String deck, boolean ready, long version, int notes, boolean reloading, long lastLoadTimeMs, String loadError) {
+        this.deck = deck;
+        this.ready = ready;
+        this.version = version;
+        this.notes = notes;
+        this.reloading = reloading;
+        this.lastLoadTimeMs = lastLoadTimeMs;
+        this.loadError = loadError;
+    }
+}
@@ -0,0 +1,27 @@
+package com.pasquale.vocabulary_website.Utils;
+
+import com.pasquale.vocabulary_website.Entity.UserWord;
+import com.pasquale.vocabulary_website.Entity.VocabularyItem;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+public class DueCard {
+    private final long noteId;
+    private final LocalDateTime dueAt;
+    private final int intervalDays;
+    private final double easeFactor;
+    private final int repetitions;
+    // Null when the note is no longer part of any loaded deck
+    private final VocabularyItem item;
+
+    public DueCard(UserWord word, VocabularyItem item) {
+        this.noteId = word.getAnkiNoteId();
+        this.dueAt = word.getDueAt();
+        this.intervalDays = word.getIntervalDays();
+        this.easeFactor = word.getEaseFactor();
+        this.repetitions = word.getRepetitions();
+        this.item = item;
+    }
+}
@@ -0,0 +1,17 @@
+package com.pasquale.vocabulary_website.Utils;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class DueCardsResponse {
+    private final List<DueCard> cards;
+    // Pass back as ?cursor= for the next page; null once the queue is exhausted
+    private final String nextCursor;
+
+    public DueCardsResponse(List<DueCard> cards, String nextCursor) {
+        this.cards = cards;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,35 @@
+package com.pasquale.vocabulary_website.Utils;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.pasquale.vocabulary_website.Entity.VocabularyItem;
+import lombok.Getter;
+
+// One event of the streamed new-words response: a whole word, or a later audio update for a word already sent
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class NewWordEvent {
+    public static final String WORD = "word";
+    public static final String AUDIO = "audio";
+
+    private final String type;
+    private final long noteId;
+    // Set on word events
+    private final VocabularyItem item;
+    // Set on audio events: the Forvo URL replacing the Anki audio
+    private final String audio;
+
+    private NewWordEvent(String type, long noteId, VocabularyItem item, String audio) {
+        this.type = type;
+        this.noteId = noteId;
+        this.item = item;
+        this.audio = audio;
+    }
+
+    public static NewWordEvent word(VocabularyItem item) {
+        return new NewWordEvent(WORD, item.getNoteId(), item, null);
+    }
+
+    public static NewWordEvent audio(long noteId, String audio) {
+        return new NewWordEvent(AUDIO, noteId, null, audio);
+    }
+}
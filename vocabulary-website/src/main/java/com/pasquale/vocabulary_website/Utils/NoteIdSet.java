@@ -0,0 +1,128 @@
+package com.pasquale.vocabulary_website.Utils;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * A set of note ids packed for storage: the ids in ascending order, each as the varint-encoded gap from
+ * the previous one. Notes of a deck are created in bulk, so their ids (epoch millis) sit close together
+ * and most gaps take one or two bytes, which makes this a run-length compressed bitmap over the id space.
+ * Unlike deck ordinals, note ids survive deck reloads, so a stored set stays valid when a deck changes.
+ *
+ * Layout: format byte, varint count, varint first id, then count - 1 varint gaps.
+ */
+public final class NoteIdSet {
+    private static final byte FORMAT = 1;
+
+    public static final byte[] EMPTY = encodeSorted(new long[0], 0);
+
+    private NoteIdSet() {}
+
+    // Any order, duplicates allowed
+    public static byte[] encode(long[] noteIds) {
+        long[] sorted = noteIds.clone();
+        Arrays.sort(sorted);
+        return encodeSorted(sorted, dedupe(sorted, sorted.length));
+    }
+
+    public static int count(byte[] data) {
+        checkFormat(data);
+        return (int) new Reader(data, 1).next();
+    }
+
+    public static void forEach(byte[] data, LongConsumer action) {
+        checkFormat(data);
+        Reader reader = new Reader(data, 1);
+        int count = (int) reader.next();
+        long id = 0;
+        for (int i = 0; i < count; i++) {
+            id += reader.next();
+            action.accept(id);
+        }
+    }
+
+    public static long[] decode(byte[] data) {
+        long[] ids = new long[count(data)];
+        int[] position = {0};
+        forEach(data, id -> ids[position[0]++] = id);
+        return ids;
+    }
+
+    // The stored set plus the given ids, re-encoded in one pass over both
+    public static byte[] merge(byte[] data, long[] noteIds) {
+        long[] stored = decode(data);
+        long[] added = noteIds.clone();
+        Arrays.sort(added);
+        long[] merged = new long[stored.length + added.length];
+        int i = 0, j = 0, k = 0;
+        while (i < stored.length || j < added.length) {
+            long next = j == added.length || (i < stored.length && stored[i] <= added[j]) ? stored[i++] : added[j++];
+            if (k == 0 || merged[k - 1] != next) {
+                merged[k++] = next;
+            }
+        }
+        return encodeSorted(merged, k);
+    }
+
+    private static int dedupe(long[] sorted, int length) {
+        int k = 0;
+        for (int i = 0; i < length; i++) {
+            if (k == 0 || sorted[k - 1] != sorted[i]) {
+                sorted[k++] = sorted[i];
+            }
+        }
+        return k;
+    }
+
+    private static byte[] encodeSorted(long[] sorted, int length) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 + length * 2);
+        out.write(FORMAT);
+        writeVarint(out, length);
+        long previous = 0;
+        for (int i = 0; i < length; i++) {
+            if (sorted[i] < 0) {
+                throw new IllegalArgumentException("Negative note id " + sorted[i]);
+            }
+            writeVarint(out, sorted[i] - previous);
+            previous = sorted[i];
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static void checkFormat(byte[] data) {
+        if (data.length == 0 || data[0] != FORMAT) {
+            throw new IllegalArgumentException("Not a note id set");
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data, int position) {
+            this.data = data;
+            this.position = position;
+        }
+
+        long next() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.pasquale.vocabulary_website.Utils;
+
+import lombok.Getter;
+
+@Getter
+public class PrefetchStatus {
+    private final boolean running;
+    private final int totalWords;
+    private final int knownWords;
+    private final int fetchedThisRun;
+    private final int remainingWords;
+    private final long availableTokens;
+    private final long dailyQuota;
+
+    public PrefetchStatus(boolean running, int totalWords, int knownWords, int fetchedThisRun, long availableTokens, long dailyQuota) {
+        this.running = running;
+        this.totalWords = totalWords;
+        this.knownWords = knownWords;
+        this.fetchedThisRun = fetchedThisRun;
+        this.remainingWords = totalWords - knownWords;
+        this.availableTokens = availableTokens;
+        this.dailyQuota = dailyQuota;
+    }
+}
@@ -0,0 +1,24 @@
+package com.pasquale.vocabulary_website.Utils;
+
+import lombok.Getter;
+
+@Getter
+public class ProgressMigrationStatus {
+    private final boolean running;
+    private final int totalUsers;
+    private final int migratedUsers;
+    private final int skippedUsers;
+    private final int failedUsers;
+    private final int remainingUsers;
+    private final String lastError;
+
+    public ProgressMigrationStatus(boolean running, int totalUsers, int migratedUsers, int skippedUsers, int failedUsers, String lastError) {
+        this.running = running;
+        this.totalUsers = totalUsers;
+        this.migratedUsers = migratedUsers;
+        this.skippedUsers = skippedUsers;
+        this.failedUsers = failedUsers;
+        this.remainingUsers = totalUsers - migratedUsers - skippedUsers - failedUsers;
+        this.lastError = lastError;
+    }
+}
@@ -0,0 +1,42 @@
+package com.pasquale.vocabulary_website.Utils;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Forvo language/country of a deck and the leading articles stripped from its words before lookup
+@Getter
+public class PronunciationLanguage {
+    public static final PronunciationLanguage GERMAN = new PronunciationLanguage("de", "DEU", List.of("der", "die", "das", "ein", "eine"));
+
+    private static final Pattern PARENTHESES = Pattern.compile("\\(.*\\)");
+
+    private final String code;
+    // ISO 3166-1 alpha-3 accent filter for Forvo; null for no filter
+    private final String country;
+    private final List<String> articles;
+    private final Pattern leadingArticle;
+
+    public PronunciationLanguage(String code, String country, List<String> articles) {
+        this.code = code;
+        this.country = country == null || country.isBlank() ? null : country;
+        this.articles = List.copyOf(articles);
+        this.leadingArticle = articles.isEmpty() ? null : Pattern.compile("^(" + articles.stream()
+                .map(Pattern::quote).collect(Collectors.joining("|")) + ")\\s+");
+    }
+
+    public String cleanWord(String word) {
+        if (word == null) return null;
+        if (leadingArticle != null) {
+            word = leadingArticle.matcher(word).replaceFirst("").trim();
+        }
+        return PARENTHESES.matcher(word).replaceAll("").trim();
+    }
+
+    // Cache and storage key; the same spelling can be a different word in another language
+    public String key(String cleanedWord) {
+        return code + ":" + cleanedWord;
+    }
+}
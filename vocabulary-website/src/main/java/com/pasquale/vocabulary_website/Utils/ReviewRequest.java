@@ -0,0 +1,18 @@
+package com.pasquale.vocabulary_website.Utils;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class ReviewRequest {
+    @NotNull
+    private Long noteId;
+
+    @Min(SpacedRepetition.MIN_GRADE)
+    @Max(SpacedRepetition.MAX_GRADE)
+    private int grade;
+}
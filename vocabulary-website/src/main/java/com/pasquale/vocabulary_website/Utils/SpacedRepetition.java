@@ -0,0 +1,43 @@
+package com.pasquale.vocabulary_website.Utils;
+
+import com.pasquale.vocabulary_website.Entity.UserWord;
+
+import java.time.LocalDateTime;
+
+/**
+ * SM-2 scheduling. Grades run from 0 (blackout) to 5 (perfect recall); below 3 the card starts over
+ * with a one-day interval, otherwise the interval grows 1 day, 6 days, then by the ease factor.
+ * The ease factor moves with every grade and never drops below 1.3.
+ */
+public final class SpacedRepetition {
+    public static final int MIN_GRADE = 0;
+    public static final int MAX_GRADE = 5;
+    private static final int PASSING_GRADE = 3;
+    private static final double MIN_EASE_FACTOR = 1.3;
+
+    private SpacedRepetition() {}
+
+    public static void review(UserWord word, int grade, LocalDateTime now) {
+        if (grade < MIN_GRADE || grade > MAX_GRADE) {
+            throw new IllegalArgumentException("Grade must be between " + MIN_GRADE + " and " + MAX_GRADE + ", got " + grade);
+        }
+        if (grade < PASSING_GRADE) {
+            word.setRepetitions(0);
+            word.setIntervalDays(1);
+        } else {
+            int repetitions = word.getRepetitions() + 1;
+            word.setRepetitions(repetitions);
+            if (repetitions == 1) {
+                word.setIntervalDays(1);
+            } else if (repetitions == 2) {
+                word.setIntervalDays(6);
+            } else {
+                word.setIntervalDays((int) Math.round(word.getIntervalDays() * word.getEaseFactor()));
+            }
+        }
+        int miss = MAX_GRADE - grade;
+        word.setEaseFactor(Math.max(MIN_EASE_FACTOR, word.getEaseFactor() + 0.1 - miss * (0.08 + miss * 0.02)));
+        word.setLastReviewedAt(now);
+        word.setDueAt(now.plusDays(word.getIntervalDays()));
+    }
+}
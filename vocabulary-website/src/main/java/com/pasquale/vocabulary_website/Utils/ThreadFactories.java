@@ -0,0 +1,44 @@
+package com.pasquale.vocabulary_website.Utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads for the executors the app owns. Work that mostly waits on the network or the database can run on
+ * virtual threads when spring.threads.virtual.enabled is set, the same switch that moves Tomcat's request
+ * handling onto them. Virtual threads need Java 21; on older JVMs the switch is ignored, here as by Spring Boot.
+ */
+public final class ThreadFactories {
+    private static final Logger log = LoggerFactory.getLogger(ThreadFactories.class);
+
+    private ThreadFactories() {}
+
+    public static boolean virtualThreadsAvailable() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    // Daemon platform threads named prefix-1, prefix-2, ...
+    public static ThreadFactory platform(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Virtual threads when asked for and available, platform threads otherwise
+    public static ThreadFactory forBlockingWork(String prefix, boolean virtual) {
+        if (virtual) {
+            if (virtualThreadsAvailable()) {
+                return new VirtualThreadTaskExecutor(prefix + "-").getVirtualThreadFactory();
+            }
+            log.warn("Virtual threads need Java 21, running '{}' on platform threads under Java {}.", prefix, Runtime.version().feature());
+        }
+        return platform(prefix);
+    }
+}
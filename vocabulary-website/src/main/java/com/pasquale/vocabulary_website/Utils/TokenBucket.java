@@ -0,0 +1,55 @@
+package com.pasquale.vocabulary_website.Utils;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket refilled continuously at {@code capacity} tokens per {@code period}, never below zero.
+ * Callers take a token with {@link #tryConsume(double)} above a reserve of their own: high priority
+ * callers pass 0 and can drain the bucket, lower priority ones back off while the balance is at or
+ * below the share kept for the others.
+ */
+public class TokenBucket {
+    private final double capacity;
+    private final double tokensPerNano;
+    private final LongSupplier nanoTime;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(long capacity, Duration period, double initialTokens) {
+        this(capacity, period, initialTokens, System::nanoTime);
+    }
+
+    // With the clock refills are measured on, so tests can move time forward
+    public TokenBucket(long capacity, Duration period, double initialTokens, LongSupplier nanoTime) {
+        this.capacity = capacity;
+        this.tokensPerNano = (double) capacity / period.toNanos();
+        this.nanoTime = nanoTime;
+        this.tokens = Math.min(initialTokens, capacity);
+        this.lastRefillNanos = nanoTime.getAsLong();
+    }
+
+    public synchronized boolean tryConsume(double reserve) {
+        refill();
+        if (tokens - 1 < reserve) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    public synchronized double available() {
+        refill();
+        return tokens;
+    }
+
+    public double getCapacity() {
+        return capacity;
+    }
+
+    private void refill() {
+        long now = nanoTime.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,80 @@
+package com.pasquale.vocabulary_website.Utils;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Picks random deck ordinals that are not set in a user's "seen" bitmap.
+ * Ordinals are the dense 0..deckSize-1 positions assigned at load time.
+ */
+public final class UnseenWordSampler {
+
+    // Random probes allowed per pick before switching to an exact scan of the unseen ordinals
+    private static final int MAX_PROBES_PER_PICK = 16;
+
+    // Told how many candidate ordinals one draw examined: random probes, and ordinals walked by the exact scan
+    // (0 unless the probes ran out)
+    public interface Observer {
+        Observer NONE = (probes, scanned) -> {};
+
+        void sampled(int probes, int scanned);
+    }
+
+    private UnseenWordSampler() {}
+
+    public static int[] sample(BitSet seen, int deckSize, int count, Random random) {
+        return sample(seen, deckSize, count, random, Observer.NONE);
+    }
+
+    /**
+     * Returns up to {@code count} distinct unseen ordinals in random order.
+     * Every returned ordinal is marked in {@code seen}, so the caller's bitmap
+     * reflects the selection afterwards.
+     */
+    public static int[] sample(BitSet seen, int deckSize, int count, Random random, Observer observer) {
+        int unseen = deckSize - seen.cardinality();
+        int wanted = Math.min(count, unseen);
+        if (wanted <= 0) {
+            observer.sampled(0, 0);
+            return new int[0];
+        }
+
+        int[] picked = new int[wanted];
+        int found = 0;
+
+        // Normal case: most of the deck is unseen, so random probes hit almost immediately (O(k))
+        int probes = 0;
+        int probeBudget = wanted * MAX_PROBES_PER_PICK;
+        while (found < wanted && probes < probeBudget) {
+            int ordinal = random.nextInt(deckSize);
+            probes++;
+            if (!seen.get(ordinal)) {
+                seen.set(ordinal);
+                picked[found++] = ordinal;
+            }
+        }
+
+        // Nearly finished deck: collect the remaining unseen ordinals and draw from them directly
+        int scanned = 0;
+        if (found < wanted) {
+            int remaining = unseen - found;
+            int[] candidates = new int[remaining];
+            int n = 0;
+            for (int i = seen.nextClearBit(0); i < deckSize && n < remaining; i = seen.nextClearBit(i + 1)) {
+                candidates[n++] = i;
+            }
+            scanned = n;
+            // Partial Fisher-Yates: only shuffle as many slots as we still need
+            for (int i = 0; i < n && found < wanted; i++) {
+                int j = i + random.nextInt(n - i);
+                int ordinal = candidates[j];
+                candidates[j] = candidates[i];
+                seen.set(ordinal);
+                picked[found++] = ordinal;
+            }
+        }
+
+        observer.sampled(probes, scanned);
+        return picked;
+    }
+}
@@ -0,0 +1,185 @@
+package com.pasquale.vocabulary_website.Utils;
+
+import com.pasquale.vocabulary_website.Entity.VocabularyItem;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable, column-oriented copy of the deck. Notes are addressed by ordinal (0..size-1, in deck order);
+ * text fields are deduplicated UTF-8 strings in one shared byte array, referenced by id (-1 = null).
+ * {@link VocabularyItem}s are only created on demand through {@link #item(int)}. The version is assigned
+ * when the deck is published and changes on every reload, so anything derived from ordinals can be keyed by it.
+ */
+public final class VocabularyDeck {
+    public static final VocabularyDeck EMPTY = new Builder(0).build();
+
+    static final int FIELDS = 4;
+    static final int GERMAN = 0;
+    static final int ENGLISH = 1;
+    static final int SAMPLE_SENTENCE = 2;
+    static final int AUDIO = 3;
+
+    private final long[] noteIds;
+    private final long[] modelIds;
+    // FIELDS string ids per note
+    private final int[] fieldRefs;
+    private final byte[] strings;
+    // String id i spans strings[stringOffsets[i]] up to strings[stringOffsets[i + 1]]
+    private final int[] stringOffsets;
+    private final LongIntHashMap ordinals;
+    private final long version;
+
+    VocabularyDeck(long[] noteIds, long[] modelIds, int[] fieldRefs, byte[] strings, int[] stringOffsets) {
+        this.noteIds = noteIds;
+        this.modelIds = modelIds;
+        this.fieldRefs = fieldRefs;
+        this.strings = strings;
+        this.stringOffsets = stringOffsets;
+        this.ordinals = new LongIntHashMap(noteIds.length);
+        for (int i = 0; i < noteIds.length; i++) {
+            ordinals.put(noteIds[i], i);
+        }
+        this.version = 0;
+    }
+
+    private VocabularyDeck(VocabularyDeck deck, long version) {
+        this.noteIds = deck.noteIds;
+        this.modelIds = deck.modelIds;
+        this.fieldRefs = deck.fieldRefs;
+        this.strings = deck.strings;
+        this.stringOffsets = deck.stringOffsets;
+        this.ordinals = deck.ordinals;
+        this.version = version;
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    // Same columns under a new version; nothing is copied
+    public VocabularyDeck withVersion(long version) {
+        return new VocabularyDeck(this, version);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return noteIds.length;
+    }
+
+    public boolean isEmpty() {
+        return noteIds.length == 0;
+    }
+
+    public long noteId(int ordinal) {
+        return noteIds[ordinal];
+    }
+
+    // -1 when the note is not part of this deck
+    public int ordinalOf(long noteId) {
+        return ordinals.get(noteId, -1);
+    }
+
+    public String german(int ordinal) {
+        return field(ordinal, GERMAN);
+    }
+
+    public String audio(int ordinal) {
+        return field(ordinal, AUDIO);
+    }
+
+    public VocabularyItem item(int ordinal) {
+        return new VocabularyItem(noteIds[ordinal], modelIds[ordinal],
+                field(ordinal, GERMAN), field(ordinal, ENGLISH), field(ordinal, SAMPLE_SENTENCE), field(ordinal, AUDIO));
+    }
+
+    String field(int ordinal, int field) {
+        int id = fieldRefs[ordinal * FIELDS + field];
+        if (id < 0) {
+            return null;
+        }
+        int start = stringOffsets[id];
+        return new String(strings, start, stringOffsets[id + 1] - start, StandardCharsets.UTF_8);
+    }
+
+    // Raw columns, for VocabularySnapshotFile
+    long[] noteIds() { return noteIds; }
+    long[] modelIds() { return modelIds; }
+    int[] fieldRefs() { return fieldRefs; }
+    byte[] strings() { return strings; }
+    int[] stringOffsets() { return stringOffsets; }
+    int stringCount() { return stringOffsets.length - 1; }
+
+    public static final class Builder {
+        private long[] noteIds;
+        private long[] modelIds;
+        private int[] fieldRefs;
+        private int size;
+        private byte[] strings = new byte[1024];
+        private int stringBytes;
+        private int[] stringOffsets = new int[64];
+        private int stringCount;
+        private final Map<String, Integer> stringIds = new HashMap<>();
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            noteIds = new long[capacity];
+            modelIds = new long[capacity];
+            fieldRefs = new int[capacity * FIELDS];
+        }
+
+        public Builder add(VocabularyItem item) {
+            if (size == noteIds.length) {
+                int capacity = size * 2;
+                noteIds = Arrays.copyOf(noteIds, capacity);
+                modelIds = Arrays.copyOf(modelIds, capacity);
+                fieldRefs = Arrays.copyOf(fieldRefs, capacity * FIELDS);
+            }
+            noteIds[size] = item.getNoteId();
+            modelIds[size] = item.getModelId();
+            int base = size * FIELDS;
+            fieldRefs[base + GERMAN] = intern(item.getGerman());
+            fieldRefs[base + ENGLISH] = intern(item.getEnglish());
+            fieldRefs[base + SAMPLE_SENTENCE] = intern(item.getSampleSentence());
+            fieldRefs[base + AUDIO] = intern(item.getAudio());
+            size++;
+            return this;
+        }
+
+        public VocabularyDeck build() {
+            return new VocabularyDeck(
+                    Arrays.copyOf(noteIds, size),
+                    Arrays.copyOf(modelIds, size),
+                    Arrays.copyOf(fieldRefs, size * FIELDS),
+                    Arrays.copyOf(strings, stringBytes),
+                    Arrays.copyOf(stringOffsets, stringCount + 1));
+        }
+
+        private int intern(String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer existing = stringIds.get(value);
+            if (existing != null) {
+                return existing;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            if (stringBytes + utf8.length > strings.length) {
+                strings = Arrays.copyOf(strings, Math.max(strings.length * 2, stringBytes + utf8.length));
+            }
+            System.arraycopy(utf8, 0, strings, stringBytes, utf8.length);
+            stringBytes += utf8.length;
+            if (stringCount + 2 > stringOffsets.length) {
+                stringOffsets = Arrays.copyOf(stringOffsets, stringOffsets.length * 2);
+            }
+            stringOffsets[++stringCount] = stringBytes;
+            stringIds.put(value, stringCount - 1);
+            return stringCount - 1;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.pasquale.vocabulary_website.Utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// A list of vocabulary items to be written from pre-encoded fragments; see VocabularyItemsJsonConverter
+public final class VocabularyItemsJson {
+    private final VocabularyJsonFragments fragments;
+    private final int[] ordinals;
+    private final String[] audio;
+
+    public VocabularyItemsJson(VocabularyJsonFragments fragments, int[] ordinals, String[] audio) {
+        this.fragments = fragments;
+        this.ordinals = ordinals;
+        this.audio = audio;
+    }
+
+    public int size() {
+        return ordinals.length;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        fragments.writeArray(ordinals, audio, out);
+    }
+}
@@ -0,0 +1,129 @@
+package com.pasquale.vocabulary_website.Utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pasquale.vocabulary_website.Entity.VocabularyItem;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Each note of one deck version as the UTF-8 JSON the app's ObjectMapper writes for its {@link VocabularyItem},
+ * encoded once and split around the audio value, the only field a response changes. A response is the
+ * fragments spliced around each note's audio, with no item copies and no reflection per request.
+ * Immutable once built, and tied to the deck it was built from so ordinals always resolve against it.
+ */
+public final class VocabularyJsonFragments {
+    public static final VocabularyJsonFragments EMPTY = new VocabularyJsonFragments(VocabularyDeck.EMPTY, new ObjectMapper(), new byte[0], new int[1]);
+
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+    private final VocabularyDeck deck;
+    // Writes audio values that need escaping, so they come out exactly as in a full serialization
+    private final ObjectMapper mapper;
+    // Ordinal i is bytes[offsets[2i] .. offsets[2i + 1]], then the audio value, then bytes[offsets[2i + 1] .. offsets[2i + 2]]
+    private final byte[] bytes;
+    private final int[] offsets;
+
+    private VocabularyJsonFragments(VocabularyDeck deck, ObjectMapper mapper, byte[] bytes, int[] offsets) {
+        this.deck = deck;
+        this.mapper = mapper;
+        this.bytes = bytes;
+        this.offsets = offsets;
+    }
+
+    public static VocabularyJsonFragments build(VocabularyDeck deck, ObjectMapper mapper) throws JsonProcessingException {
+        byte[] bytes = new byte[Math.max(1024, deck.size() * 256)];
+        int length = 0;
+        int[] offsets = new int[deck.size() * 2 + 1];
+        for (int ordinal = 0; ordinal < deck.size(); ordinal++) {
+            // Encoded with two one-character audio values, the only bytes that differ are the audio value's
+            VocabularyItem item = deck.item(ordinal);
+            item.setAudio("a");
+            byte[] json = mapper.writeValueAsBytes(item);
+            item.setAudio("b");
+            byte[] other = mapper.writeValueAsBytes(item);
+            int split = Arrays.mismatch(json, other);
+            if (json.length != other.length || split < 1 || json[split - 1] != '"' || json[split + 1] != '"') {
+                throw new IllegalStateException("Cannot find the audio value in the JSON of note " + deck.noteId(ordinal));
+            }
+            // Quotes are left out: the value is written with them, or as null
+            int prefixLength = split - 1;
+            int suffixLength = json.length - split - 2;
+            if (length + prefixLength + suffixLength > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + prefixLength + suffixLength));
+            }
+            System.arraycopy(json, 0, bytes, length, prefixLength);
+            length += prefixLength;
+            offsets[ordinal * 2 + 1] = length;
+            System.arraycopy(json, split + 2, bytes, length, suffixLength);
+            length += suffixLength;
+            offsets[ordinal * 2 + 2] = length;
+        }
+        return new VocabularyJsonFragments(deck, mapper, Arrays.copyOf(bytes, length), offsets);
+    }
+
+    public VocabularyDeck getDeck() {
+        return deck;
+    }
+
+    // Encoded bytes held for the whole deck
+    public int byteSize() {
+        return bytes.length;
+    }
+
+    /**
+     * Writes the JSON array of the notes at these ordinals, in order, each with the given audio (null writes null).
+     * Byte for byte what the ObjectMapper would write for the matching list of items.
+     */
+    public void writeArray(int[] ordinals, String[] audio, OutputStream out) throws IOException {
+        out.write('[');
+        for (int i = 0; i < ordinals.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            writeNote(ordinals[i], audio[i], out);
+        }
+        out.write(']');
+    }
+
+    // The JSON array of the notes from ordinal from (inclusive) to to (exclusive), each with its Anki audio
+    public void writeRange(int from, int to, OutputStream out) throws IOException {
+        out.write('[');
+        for (int ordinal = from; ordinal < to; ordinal++) {
+            if (ordinal > from) {
+                out.write(',');
+            }
+            writeNote(ordinal, deck.audio(ordinal), out);
+        }
+        out.write(']');
+    }
+
+    private void writeNote(int ordinal, String audio, OutputStream out) throws IOException {
+        int start = offsets[ordinal * 2];
+        int split = offsets[ordinal * 2 + 1];
+        out.write(bytes, start, split - start);
+        writeString(audio, out);
+        out.write(bytes, split, offsets[ordinal * 2 + 2] - split);
+    }
+
+    // URLs and Anki sound tags are plain ASCII and go out as they are; anything else is left to the mapper
+    private void writeString(String value, OutputStream out) throws IOException {
+        if (value == null) {
+            out.write(NULL);
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c >= 0x7f || c == '"' || c == '\\') {
+                out.write(mapper.writeValueAsBytes(value));
+                return;
+            }
+        }
+        out.write('"');
+        out.write(value.getBytes(StandardCharsets.US_ASCII));
+        out.write('"');
+    }
+}
@@ -0,0 +1,19 @@
+package com.pasquale.vocabulary_website.Utils;
+
+import lombok.Getter;
+
+// Published after a freshly loaded version of a deck has been swapped in
+@Getter
+public class VocabularyLoadedEvent {
+    private final String deck;
+    private final long version;
+    private final int notes;
+    private final long loadTimeMs;
+
+    public VocabularyLoadedEvent(String deck, long version, int notes, long loadTimeMs) {
+        this.deck = deck;
+        this.version = version;
+        this.notes = notes;
+        this.loadTimeMs = loadTimeMs;
+    }
+}
@@ -0,0 +1,460 @@
+package com.pasquale.vocabulary_website.Utils;
+
+import java.text.Normalizer;
+import java.util.*;
+
+/**
+ * Inverted index over the term, translation and sample-sentence fields of one deck version.
+ * Tokens are lower-cased and folded (ä -> ae, ß -> ss, other accents dropped). The deck language's articles
+ * are left out of the term field only, so a translation or sentence word that happens to be spelled like one
+ * (the English "die") stays searchable; a query loses just a leading article. A query token matches a term exactly,
+ * as a prefix, or, failing both, through shared trigrams. Notes are ranked by the sum over query tokens
+ * of their best match, weighted by the field it was found in; ties keep deck order.
+ * Immutable once built, and tied to the deck it was built from so results always resolve against it.
+ */
+public final class VocabularySearchIndex {
+    public static final VocabularySearchIndex EMPTY = new VocabularySearchIndex(VocabularyDeck.EMPTY, PronunciationLanguage.GERMAN);
+
+    // Field bits stored with each posting, and how much a match in that field counts
+    private static final int TERM = 1;
+    private static final int TRANSLATION = 2;
+    private static final int SENTENCE = 4;
+    private static final float TERM_WEIGHT = 3f;
+    private static final float TRANSLATION_WEIGHT = 2f;
+    private static final float SENTENCE_WEIGHT = 1f;
+
+    private static final float PREFIX_MATCH = 0.7f;
+    private static final float FUZZY_MATCH = 0.5f;
+    // Shorter prefixes match too much of the dictionary to be useful
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_TERMS = 256;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    // Dice coefficient over padded trigrams
+    private static final float MIN_FUZZY_SIMILARITY = 0.5f;
+    // A trigram in more than 1/COMMON_TRIGRAM_SHARE of the terms (and at least MIN_COMMON_TRIGRAM_TERMS) is too common to expand
+    private static final int COMMON_TRIGRAM_SHARE = 50;
+    private static final int MIN_COMMON_TRIGRAM_TERMS = 1024;
+
+    private final VocabularyDeck deck;
+    private final PronunciationLanguage language;
+    private final Set<String> articles;
+    // Sorted, so prefixes are a contiguous range
+    private final String[] terms;
+    // Term t's postings are postingOrdinals/postingFields[postingStart[t] .. postingStart[t + 1]], by ascending ordinal
+    private final int[] postingStart;
+    private final int[] postingOrdinals;
+    private final byte[] postingFields;
+    // Packed trigram -> id; trigram id g lists the term ids trigramTerms[trigramStart[g] .. trigramStart[g + 1]]
+    private final LongIntHashMap trigramIds;
+    private final int[] trigramStart;
+    private final int[] trigramTerms;
+    private final int[] termTrigramCount;
+
+    private VocabularySearchIndex(VocabularyDeck deck, PronunciationLanguage language) {
+        this.deck = deck;
+        this.language = language;
+        this.articles = new HashSet<>();
+        for (String article : language.getArticles()) {
+            articles.add(normalize(article));
+        }
+
+        // Collect (term, ordinal, field) triples, then sort them into per-term posting lists
+        Map<String, Integer> termIds = new HashMap<>();
+        List<String> termList = new ArrayList<>();
+        long[] entries = new long[Math.max(16, deck.size() * 8)];
+        int entryCount = 0;
+        List<String> tokens = new ArrayList<>();
+        for (int ordinal = 0; ordinal < deck.size(); ordinal++) {
+            for (int field : new int[]{TERM, TRANSLATION, SENTENCE}) {
+                tokens.clear();
+                tokenize(fieldText(ordinal, field), field == TERM, tokens);
+                for (String token : tokens) {
+                    Integer id = termIds.get(token);
+                    if (id == null) {
+                        id = termList.size();
+                        termIds.put(token, id);
+                        termList.add(token);
+                    }
+                    if (entryCount == entries.length) {
+                        entries = Arrays.copyOf(entries, entryCount * 2);
+                    }
+                    entries[entryCount++] = (long) id << 32 | (long) ordinal << 3 | field;
+                }
+            }
+        }
+
+        this.terms = termList.toArray(new String[0]);
+        Arrays.sort(terms);
+        int[] rank = new int[terms.length];
+        for (int t = 0; t < terms.length; t++) {
+            rank[termIds.get(terms[t])] = t;
+        }
+        for (int i = 0; i < entryCount; i++) {
+            long entry = entries[i];
+            entries[i] = (long) rank[(int) (entry >>> 32)] << 32 | (entry & 0xFFFFFFFFL);
+        }
+        Arrays.sort(entries, 0, entryCount);
+
+        int[] starts = new int[terms.length + 1];
+        int[] ordinals = new int[entryCount];
+        byte[] fields = new byte[entryCount];
+        int postings = 0;
+        int previousTerm = -1;
+        int previousOrdinal = -1;
+        for (int i = 0; i < entryCount; i++) {
+            int term = (int) (entries[i] >>> 32);
+            int ordinal = (int) (entries[i] & 0xFFFFFFFFL) >>> 3;
+            int field = (int) (entries[i] & 7);
+            if (term == previousTerm && ordinal == previousOrdinal) {
+                fields[postings - 1] |= (byte) field;
+                continue;
+            }
+            while (previousTerm < term) {
+                starts[++previousTerm] = postings;
+            }
+            previousOrdinal = ordinal;
+            ordinals[postings] = ordinal;
+            fields[postings] = (byte) field;
+            postings++;
+        }
+        while (previousTerm < terms.length) {
+            starts[++previousTerm] = postings;
+        }
+        this.postingStart = starts;
+        this.postingOrdinals = Arrays.copyOf(ordinals, postings);
+        this.postingFields = Arrays.copyOf(fields, postings);
+
+        // Trigram -> terms, built the same way
+        this.trigramIds = new LongIntHashMap(terms.length);
+        this.termTrigramCount = new int[terms.length];
+        long[] pairs = new long[Math.max(16, terms.length * 8)];
+        int pairCount = 0;
+        for (int t = 0; t < terms.length; t++) {
+            long[] trigrams = trigrams(terms[t]);
+            termTrigramCount[t] = trigrams.length;
+            for (long trigram : trigrams) {
+                int id = trigramIds.get(trigram, -1);
+                if (id < 0) {
+                    id = trigramIds.size();
+                    trigramIds.put(trigram, id);
+                }
+                if (pairCount == pairs.length) {
+                    pairs = Arrays.copyOf(pairs, pairCount * 2);
+                }
+                pairs[pairCount++] = (long) id << 32 | t;
+            }
+        }
+        Arrays.sort(pairs, 0, pairCount);
+        this.trigramStart = new int[trigramIds.size() + 1];
+        this.trigramTerms = new int[pairCount];
+        int previous = -1;
+        for (int i = 0; i < pairCount; i++) {
+            int id = (int) (pairs[i] >>> 32);
+            while (previous < id) {
+                trigramStart[++previous] = i;
+            }
+            trigramTerms[i] = (int) pairs[i];
+        }
+        while (previous < trigramIds.size()) {
+            trigramStart[++previous] = pairCount;
+        }
+    }
+
+    public static VocabularySearchIndex build(VocabularyDeck deck, PronunciationLanguage language) {
+        return new VocabularySearchIndex(deck, language);
+    }
+
+    public VocabularyDeck getDeck() {
+        return deck;
+    }
+
+    public int termCount() {
+        return terms.length;
+    }
+
+    // Ordinals in getDeck() of the best matches, best first; empty when nothing matches
+    public int[] search(String query, int limit) {
+        List<String> tokens = new ArrayList<>();
+        tokenize(language.cleanWord(query), false, tokens);
+        if (tokens.isEmpty() || limit <= 0 || deck.isEmpty()) {
+            return new int[0];
+        }
+        // Sparse, so a query costs what it matches rather than the size of the deck
+        ScoreMap total = new ScoreMap();
+        for (String token : new LinkedHashSet<>(tokens)) {
+            ScoreMap tokenScores = new ScoreMap();
+            matchToken(token, tokenScores);
+            for (int i = 0; i < tokenScores.keys.length; i++) {
+                if (tokenScores.keys[i] >= 0) {
+                    total.add(tokenScores.keys[i], tokenScores.values[i]);
+                }
+            }
+        }
+        return top(total, limit);
+    }
+
+    private void matchToken(String token, ScoreMap scores) {
+        int found = Arrays.binarySearch(terms, token);
+        if (found >= 0) {
+            addPostings(found, 1f, scores);
+        }
+        boolean prefixMatched = false;
+        if (token.length() >= MIN_PREFIX_LENGTH) {
+            int from = found >= 0 ? found + 1 : -found - 1;
+            for (int t = from; t < terms.length && t - from < MAX_PREFIX_TERMS && terms[t].startsWith(token); t++) {
+                addPostings(t, PREFIX_MATCH, scores);
+                prefixMatched = true;
+            }
+        }
+        // Fall back to spelling variants only when the word itself isn't in the deck
+        if (found < 0 && !prefixMatched && token.length() >= MIN_FUZZY_LENGTH) {
+            matchFuzzy(token, scores);
+        }
+    }
+
+    private void matchFuzzy(String token, ScoreMap scores) {
+        long[] trigrams = trigrams(token);
+        // Ids of the query trigrams that occur in the index, rarest first
+        int[] ids = new int[trigrams.length];
+        int known = 0;
+        for (long trigram : trigrams) {
+            int id = trigramIds.get(trigram, -1);
+            if (id >= 0) {
+                ids[known++] = id;
+            }
+        }
+        Integer[] order = new Integer[known];
+        for (int i = 0; i < known; i++) {
+            order[i] = ids[i];
+        }
+        Arrays.sort(order, Comparator.comparingInt(id -> trigramStart[id + 1] - trigramStart[id]));
+
+        // Reaching the similarity threshold takes at least minShared of the query's trigrams, so every
+        // match has one of the rarest (count - minShared + 1); the commoner ones are only looked up per candidate.
+        // Trigrams found in a large share of all terms don't generate candidates either, which bounds the work per query
+        // at the cost of missing variants that only share such common trigrams with the query.
+        int minShared = (int) Math.ceil(trigrams.length * MIN_FUZZY_SIMILARITY / (2 - MIN_FUZZY_SIMILARITY));
+        int maxGeneratingTerms = Math.max(MIN_COMMON_TRIGRAM_TERMS, terms.length / COMMON_TRIGRAM_SHARE);
+        int generating = 0;
+        while (generating < Math.min(known, trigrams.length - minShared + 1)
+                && (generating == 0 || trigramStart[order[generating] + 1] - trigramStart[order[generating]] <= maxGeneratingTerms)) {
+            generating++;
+        }
+        ScoreMap shared = new ScoreMap();
+        for (int g = 0; g < generating; g++) {
+            int id = order[g];
+            for (int i = trigramStart[id]; i < trigramStart[id + 1]; i++) {
+                shared.add(trigramTerms[i], 1f);
+            }
+        }
+        // Count the commoner trigrams for the candidates only: walk a trigram's term list if that is cheaper
+        // than a binary search in it per candidate, otherwise search it per candidate below
+        int searched = generating;
+        for (int g = generating; g < known; g++) {
+            int id = order[g];
+            int length = trigramStart[id + 1] - trigramStart[id];
+            if (length <= shared.size * (32 - Integer.numberOfLeadingZeros(length))) {
+                for (int i = trigramStart[id]; i < trigramStart[id + 1]; i++) {
+                    shared.addIfPresent(trigramTerms[i], 1f);
+                }
+            } else {
+                order[searched++] = id;
+            }
+        }
+        for (int i = 0; i < shared.keys.length; i++) {
+            int term = shared.keys[i];
+            if (term < 0) {
+                continue;
+            }
+            int count = (int) shared.values[i];
+            for (int g = generating; g < searched; g++) {
+                int id = order[g];
+                if (Arrays.binarySearch(trigramTerms, trigramStart[id], trigramStart[id + 1], term) >= 0) {
+                    count++;
+                }
+            }
+            float similarity = 2f * count / (trigrams.length + termTrigramCount[term]);
+            if (similarity >= MIN_FUZZY_SIMILARITY) {
+                addPostings(term, FUZZY_MATCH * similarity, scores);
+            }
+        }
+    }
+
+    private void addPostings(int term, float quality, ScoreMap scores) {
+        for (int p = postingStart[term]; p < postingStart[term + 1]; p++) {
+            scores.max(postingOrdinals[p], quality * fieldWeight(postingFields[p]));
+        }
+    }
+
+    private static float fieldWeight(int fields) {
+        if ((fields & TERM) != 0) return TERM_WEIGHT;
+        if ((fields & TRANSLATION) != 0) return TRANSLATION_WEIGHT;
+        return SENTENCE_WEIGHT;
+    }
+
+    // Keeps the best `limit` ordinals by insertion into a small sorted array; ties go to the lower ordinal
+    private static int[] top(ScoreMap scores, int limit) {
+        int size = Math.min(limit, scores.size);
+        int[] best = new int[size];
+        float[] bestScores = new float[size];
+        int count = 0;
+        for (int i = 0; i < scores.keys.length; i++) {
+            int ordinal = scores.keys[i];
+            float score = scores.values[i];
+            if (ordinal < 0 || (count == size && !ranksBefore(score, ordinal, bestScores[count - 1], best[count - 1]))) {
+                continue;
+            }
+            int at = count < size ? count++ : count - 1;
+            while (at > 0 && ranksBefore(score, ordinal, bestScores[at - 1], best[at - 1])) {
+                best[at] = best[at - 1];
+                bestScores[at] = bestScores[at - 1];
+                at--;
+            }
+            best[at] = ordinal;
+            bestScores[at] = score;
+        }
+        return best;
+    }
+
+    private static boolean ranksBefore(float score, int ordinal, float otherScore, int otherOrdinal) {
+        return score > otherScore || (score == otherScore && ordinal < otherOrdinal);
+    }
+
+    private String fieldText(int ordinal, int field) {
+        return switch (field) {
+            case TERM -> language.cleanWord(deck.field(ordinal, VocabularyDeck.GERMAN));
+            case TRANSLATION -> deck.field(ordinal, VocabularyDeck.ENGLISH);
+            default -> deck.field(ordinal, VocabularyDeck.SAMPLE_SENTENCE);
+        };
+    }
+
+    private void tokenize(String text, boolean dropArticles, List<String> tokens) {
+        if (text == null) {
+            return;
+        }
+        String normalized = normalize(text);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean letter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                String token = normalized.substring(start, i);
+                if (!dropArticles || !articles.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+    }
+
+    // Lower case with German umlauts and ß spelled out, so "Strasse" finds "Straße", and other accents removed
+    static String normalize(String text) {
+        StringBuilder folded = new StringBuilder(text.length() + 4);
+        boolean plain = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            switch (c) {
+                case 'ä' -> folded.append("ae");
+                case 'ö' -> folded.append("oe");
+                case 'ü' -> folded.append("ue");
+                case 'ß' -> folded.append("ss");
+                default -> {
+                    folded.append(c);
+                    plain &= c < 0x80;
+                }
+            }
+        }
+        if (plain) {
+            return folded.toString();
+        }
+        return Normalizer.normalize(folded, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+    }
+
+    // Distinct trigrams of the word padded with one boundary mark on each side, three chars packed per long
+    private static long[] trigrams(String word) {
+        String padded = "\u0001" + word + "\u0001";
+        long[] trigrams = new long[padded.length() - 2];
+        int count = 0;
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            long trigram = (long) padded.charAt(i) << 32 | (long) padded.charAt(i + 1) << 16 | padded.charAt(i + 2);
+            boolean seen = false;
+            for (int j = 0; j < count && !seen; j++) {
+                seen = trigrams[j] == trigram;
+            }
+            if (!seen) {
+                trigrams[count++] = trigram;
+            }
+        }
+        return count == trigrams.length ? trigrams : Arrays.copyOf(trigrams, count);
+    }
+
+    // Open-addressing int -> float map for non-negative keys; -1 marks a free slot
+    private static final class ScoreMap {
+        private int[] keys = newKeys(64);
+        private float[] values = new float[64];
+        private int size;
+
+        private static int[] newKeys(int capacity) {
+            int[] keys = new int[capacity];
+            Arrays.fill(keys, -1);
+            return keys;
+        }
+
+        private void add(int key, float delta) {
+            int slot = slot(key);
+            values[slot] += delta;
+        }
+
+        private void addIfPresent(int key, float delta) {
+            int mask = keys.length - 1;
+            int hash = key * 0x9E3779B9;
+            for (int slot = (hash ^ hash >>> 16) & mask; keys[slot] >= 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    values[slot] += delta;
+                    return;
+                }
+            }
+        }
+
+        private void max(int key, float value) {
+            int slot = slot(key);
+            if (value > values[slot]) {
+                values[slot] = value;
+            }
+        }
+
+        // Slot of the key, inserted with value 0 if absent
+        private int slot(int key) {
+            int mask = keys.length - 1;
+            int hash = key * 0x9E3779B9;
+            int slot = (hash ^ hash >>> 16) & mask;
+            while (keys[slot] != key) {
+                if (keys[slot] < 0) {
+                    if (size * 2 >= keys.length) {
+                        grow();
+                        return slot(key);
+                    }
+                    keys[slot] = key;
+                    size++;
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            float[] oldValues = values;
+            keys = newKeys(oldKeys.length * 2);
+            values = new float[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] >= 0) {
+                    values[slot(oldKeys[i])] = oldValues[i];
+                }
+            }
+        }
+    }
+}
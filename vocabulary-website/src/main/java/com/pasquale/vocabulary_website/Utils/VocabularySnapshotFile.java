@@ -0,0 +1,181 @@
+package com.pasquale.vocabulary_website.Utils;
+
+import java.io.*;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compact binary copy of a {@link VocabularyDeck}, so a restart can skip unzipping and parsing the .apkg.
+ * <pre>
+ * magic "VVSN" | version int | source SHA-256 (32 bytes) | item count int | string count int
+ * string offsets int[string count + 1] | UTF-8 string bytes
+ * items: note id long, model id long, german/english/sample sentence/audio string ids int (-1 = null)
+ * CRC32 of everything above, as a long
+ * </pre>
+ * The layout mirrors the deck's columns, so loading is a bulk copy with no string decoding.
+ * All numbers are big-endian. Readers memory-map the file and reject anything that does not
+ * match the expected magic, version, source checksum, sizes or CRC.
+ */
+public final class VocabularySnapshotFile {
+    private static final int MAGIC = 0x5656534E; // "VVSN"
+    public static final int VERSION = 1;
+    private static final int CHECKSUM_LENGTH = 32;
+    private static final int HEADER_LENGTH = 4 + 4 + CHECKSUM_LENGTH + 4 + 4;
+    private static final int ITEM_LENGTH = 8 + 8 + 4 * 4;
+    private static final int TRAILER_LENGTH = 8;
+
+    private VocabularySnapshotFile() {}
+
+    // SHA-256 of the file followed by any extra inputs the parsed result depends on (e.g. the field mapping)
+    public static byte[] checksum(Path file, String... extras) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[1 << 16];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        for (String extra : extras) {
+            digest.update((byte) 0);
+            digest.update(extra.getBytes(StandardCharsets.UTF_8));
+        }
+        return digest.digest();
+    }
+
+    public static String fileName(byte[] sourceChecksum) {
+        return HexFormat.of().formatHex(sourceChecksum) + ".vvsnap";
+    }
+
+    // Writes to a temporary file next to the target and moves it into place, so readers never see a partial file
+    public static void write(Path target, byte[] sourceChecksum, VocabularyDeck deck) throws IOException {
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), "snapshot_", ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            try (CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16), crc);
+                 DataOutputStream out = new DataOutputStream(checked)) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.write(sourceChecksum);
+                out.writeInt(deck.size());
+                out.writeInt(deck.stringCount());
+                for (int offset : deck.stringOffsets()) {
+                    out.writeInt(offset);
+                }
+                out.write(deck.strings());
+
+                long[] noteIds = deck.noteIds();
+                long[] modelIds = deck.modelIds();
+                int[] fieldRefs = deck.fieldRefs();
+                for (int i = 0; i < noteIds.length; i++) {
+                    out.writeLong(noteIds[i]);
+                    out.writeLong(modelIds[i]);
+                    for (int f = 0; f < VocabularyDeck.FIELDS; f++) {
+                        out.writeInt(fieldRefs[i * VocabularyDeck.FIELDS + f]);
+                    }
+                }
+                // The value is taken before the trailer goes through the checked stream, so it covers only the body
+                out.writeLong(crc.getValue());
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Reads a snapshot written for {@code sourceChecksum}.
+     *
+     * @throws IOException if the file is missing, stale, truncated or corrupt
+     */
+    public static VocabularyDeck read(Path file, byte[] sourceChecksum) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_LENGTH + 4 + TRAILER_LENGTH || size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot has an invalid size: " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.BIG_ENDIAN);
+
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a vocabulary snapshot");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("Unsupported snapshot version " + buffer.getInt(4));
+            }
+            byte[] storedChecksum = new byte[CHECKSUM_LENGTH];
+            buffer.get(8, storedChecksum);
+            if (!Arrays.equals(storedChecksum, sourceChecksum)) {
+                throw new IOException("Snapshot was written for a different .apkg");
+            }
+
+            int bodyLength = (int) size - TRAILER_LENGTH;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(0, bodyLength));
+            if (crc.getValue() != buffer.getLong(bodyLength)) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+
+            int itemCount = buffer.getInt(8 + CHECKSUM_LENGTH);
+            int stringCount = buffer.getInt(12 + CHECKSUM_LENGTH);
+            int offsetsStart = HEADER_LENGTH;
+            long stringsStart = offsetsStart + 4L * (stringCount + 1);
+            if (itemCount < 0 || stringCount < 0 || stringsStart > bodyLength) {
+                throw new IOException("Snapshot header is corrupt");
+            }
+            int stringBytes = buffer.getInt((int) stringsStart - 4);
+            long itemsStart = stringsStart + stringBytes;
+            if (stringBytes < 0 || itemsStart + (long) ITEM_LENGTH * itemCount != bodyLength) {
+                throw new IOException("Snapshot sections do not add up");
+            }
+
+            int[] stringOffsets = new int[stringCount + 1];
+            buffer.slice(offsetsStart, 4 * (stringCount + 1)).asIntBuffer().get(stringOffsets);
+            for (int i = 0; i < stringCount; i++) {
+                if (stringOffsets[i] > stringOffsets[i + 1]) {
+                    throw new IOException("Snapshot string offsets are corrupt");
+                }
+            }
+            if (stringOffsets[0] != 0) {
+                throw new IOException("Snapshot string offsets are corrupt");
+            }
+            byte[] strings = new byte[stringBytes];
+            buffer.get((int) stringsStart, strings);
+
+            long[] noteIds = new long[itemCount];
+            long[] modelIds = new long[itemCount];
+            int[] fieldRefs = new int[itemCount * VocabularyDeck.FIELDS];
+            int position = (int) itemsStart;
+            for (int i = 0; i < itemCount; i++) {
+                noteIds[i] = buffer.getLong(position);
+                modelIds[i] = buffer.getLong(position + 8);
+                for (int f = 0; f < VocabularyDeck.FIELDS; f++) {
+                    int id = buffer.getInt(position + 16 + 4 * f);
+                    if (id < -1 || id >= stringCount) {
+                        throw new IOException("Snapshot string id out of range: " + id);
+                    }
+                    fieldRefs[i * VocabularyDeck.FIELDS + f] = id;
+                }
+                position += ITEM_LENGTH;
+            }
+            return new VocabularyDeck(noteIds, modelIds, fieldRefs, strings, stringOffsets);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Snapshot is truncated", e);
+        }
+    }
+}
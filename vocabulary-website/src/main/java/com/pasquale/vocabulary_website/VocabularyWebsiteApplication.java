@@ -3,11 +3,25 @@ package com.pasquale.vocabulary_website;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import java.util.Map;
+
 @SpringBootApplication
 public class VocabularyWebsiteApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(VocabularyWebsiteApplication.class, args);
+		SpringApplication application = new SpringApplication(VocabularyWebsiteApplication.class);
+		application.setDefaultProperties(defaultProperties());
+		application.run(args);
+	}
+
+	// Overridable by any property source. Open-in-view kept each request's pooled connection through the
+	// Forvo enrichment wait, so concurrent requests beyond the pool size queued for connections.
+	// /actuator/metrics works in every build; /actuator/prometheus only in builds with the prometheus profile's
+	// registry, and is simply absent otherwise.
+	static Map<String, Object> defaultProperties() {
+		return Map.of(
+				"spring.jpa.open-in-view", "false",
+				"management.endpoints.web.exposure.include", "health,metrics,prometheus");
 	}
 
 }
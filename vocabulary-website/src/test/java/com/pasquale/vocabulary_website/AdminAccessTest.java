@@ -0,0 +1,85 @@
+package com.pasquale.vocabulary_website;
+
+import com.pasquale.vocabulary_website.Auth.JwtUtils;
+import com.pasquale.vocabulary_website.Entity.ApplicationUser;
+import com.pasquale.vocabulary_website.Repository.UserRepository;
+import com.pasquale.vocabulary_website.Service.UserDetailsImpl;
+import com.pasquale.vocabulary_website.Service.VocabularyService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The exposure VocabularyWebsiteApplication.main sets by default
+@SpringBootTest(properties = "management.endpoints.web.exposure.include=health,metrics,prometheus")
+@AutoConfigureMockMvc
+class AdminAccessTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @MockitoBean
+    private VocabularyService vocabularyService;
+
+    private String bearer(String username, boolean admin) {
+        ApplicationUser user = userRepository.findByUsername(username).orElseGet(() -> {
+            ApplicationUser created = new ApplicationUser();
+            created.setUsername(username);
+            created.setEmail(username + "@example.com");
+            created.setPassword("x");
+            created.setAdmin(admin);
+            return userRepository.save(created);
+        });
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        return "Bearer " + jwtUtils.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @Test
+    void signedInUsersWithoutTheRoleAreForbidden() throws Exception {
+        mockMvc.perform(get("/api/admin/deck")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/admin/deck").header(HttpHeaders.AUTHORIZATION, bearer("learner", false)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/admin/reload").header(HttpHeaders.AUTHORIZATION, bearer("learner", false)))
+                .andExpect(status().isForbidden());
+        verify(vocabularyService, never()).getDeckStatus();
+        verify(vocabularyService, never()).reload();
+    }
+
+    @Test
+    void theRoleComesFromTheTokenClaims() throws Exception {
+        when(vocabularyService.getDeckStatus()).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/admin/deck").header(HttpHeaders.AUTHORIZATION, bearer("operator", true)))
+                .andExpect(status().isOk());
+        verify(vocabularyService).getDeckStatus();
+    }
+
+    @Test
+    void metricsNeedTheRoleButHealthDoesNot() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/metrics").header(HttpHeaders.AUTHORIZATION, bearer("learner", false)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/metrics/jvm.memory.used").header(HttpHeaders.AUTHORIZATION, bearer("operator", true)))
+                .andExpect(status().isOk());
+    }
+}
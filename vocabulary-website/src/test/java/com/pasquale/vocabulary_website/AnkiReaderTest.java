@@ -1,13 +1,18 @@
 package com.pasquale.vocabulary_website;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pasquale.vocabulary_website.Entity.VocabularyItem;
 import com.pasquale.vocabulary_website.Utils.AnkiDatasetReader;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 // --- Test Class ---
 class AnkiReaderTest {
     @Test
@@ -34,4 +39,41 @@ class AnkiReaderTest {
             }
         }
     }
+
+    @Test
+    void streamingReaderMatchesMapBasedReader(@TempDir Path tempDir) throws Exception {
+        Path deck = SyntheticAnkiDeck.write(tempDir, 500);
+        AnkiDatasetReader reader = new AnkiDatasetReader();
+
+        List<VocabularyItem> fromMaps = reader.readAnkiDataset(deck.toString()).stream().map(VocabularyItem::new).toList();
+        List<VocabularyItem> streamed = reader.readVocabularyItems(deck.toString());
+
+        assertEquals(500, streamed.size());
+        assertEquals(fromMaps.size(), streamed.size());
+        for (int i = 0; i < streamed.size(); i++) {
+            VocabularyItem expected = fromMaps.get(i);
+            VocabularyItem actual = streamed.get(i);
+            assertEquals(expected.getNoteId(), actual.getNoteId());
+            assertEquals(expected.getModelId(), actual.getModelId());
+            assertEquals(expected.getGerman(), actual.getGerman());
+            assertEquals(expected.getEnglish(), actual.getEnglish());
+            assertEquals(expected.getSampleSentence(), actual.getSampleSentence());
+            assertEquals(expected.getAudio(), actual.getAudio());
+        }
+        assertEquals("[sound:note_0.mp3]", streamed.get(0).getAudio());
+    }
+
+    @Test
+    void parallelReadKeepsSerialOrder(@TempDir Path tempDir) throws Exception {
+        Path deck = SyntheticAnkiDeck.write(tempDir, 5_000);
+
+        List<VocabularyItem> serial = new AnkiDatasetReader(1).readVocabularyItems(deck.toString());
+        List<VocabularyItem> parallel = new AnkiDatasetReader(4).readVocabularyItems(deck.toString());
+
+        assertEquals(5_000, parallel.size());
+        for (int i = 0; i < serial.size(); i++) {
+            assertEquals(serial.get(i).getNoteId(), parallel.get(i).getNoteId());
+            assertEquals(serial.get(i).getGerman(), parallel.get(i).getGerman());
+        }
+    }
 }
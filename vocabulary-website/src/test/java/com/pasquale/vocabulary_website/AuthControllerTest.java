@@ -0,0 +1,93 @@
+package com.pasquale.vocabulary_website;
+
+import com.pasquale.vocabulary_website.Service.PasswordHashingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// One hashing thread and a queue of one, so two blocked tasks saturate the pool
+@SpringBootTest(properties = {"app.bcrypt.threads=1", "app.bcrypt.queueCapacity=1", "app.bcrypt.strength=4"})
+@AutoConfigureMockMvc
+class AuthControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static MockHttpServletRequestBuilder json(String path, String body) {
+        return post(path).contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+
+    @Test
+    void signUpAndSignInRunOffTheRequestThread() throws Exception {
+        MvcResult signup = mockMvc.perform(json("/api/auth/signup",
+                "{\"username\":\"erin\",\"email\":\"erin@example.com\",\"password\":\"secret1\"}"))
+                .andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(signup)).andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("User registered successfully"))
+                .andExpect(jsonPath("$.password").doesNotExist())
+                .andExpect(jsonPath("$.admin").doesNotExist());
+
+        MvcResult signin = mockMvc.perform(json("/api/auth/signin", "{\"username\":\"erin\",\"password\":\"secret1\"}"))
+                .andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(signin)).andExpect(status().isOk()).andExpect(jsonPath("$.token").isNotEmpty());
+
+        MvcResult wrong = mockMvc.perform(json("/api/auth/signin", "{\"username\":\"erin\",\"password\":\"wrong!\"}"))
+                .andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(wrong)).andExpect(status().isUnauthorized());
+
+        assertTrue(meterRegistry.get("auth.password.hashing").timer().count() >= 3);
+        assertNotNull(meterRegistry.get("executor.queued").tag("name", "password-hashing").gauge());
+    }
+
+    @Test
+    void saturatedPoolAnswers429Immediately() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Object> running = passwordHashingService.submit(() -> {
+            started.countDown();
+            return await(release);
+        });
+        // An idle pool thread takes the first task from the queue; wait for that so the second one fills it
+        started.await();
+        CompletableFuture<Object> queued = passwordHashingService.submit(() -> await(release));
+        try {
+            mockMvc.perform(json("/api/auth/signin", "{\"username\":\"erin\",\"password\":\"secret1\"}"))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().string("Retry-After", "1"));
+            assertEquals(1.0, meterRegistry.get("auth.password.rejected").counter().count());
+        } finally {
+            release.countDown();
+        }
+        running.join();
+        queued.join();
+    }
+
+    private static Object await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+}
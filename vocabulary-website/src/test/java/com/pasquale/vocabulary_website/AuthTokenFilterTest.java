@@ -0,0 +1,93 @@
+package com.pasquale.vocabulary_website;
+
+import com.pasquale.vocabulary_website.Auth.AuthTokenFilter;
+import com.pasquale.vocabulary_website.Auth.JwtUtils;
+import com.pasquale.vocabulary_website.Service.UserDetailsImpl;
+import com.pasquale.vocabulary_website.Service.UserService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AuthTokenFilterTest {
+    private static final String SECRET = "c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0";
+
+    private JwtUtils jwtUtils;
+    private UserService userService;
+    private SimpleMeterRegistry meterRegistry;
+    private AuthTokenFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60_000);
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+        userService = mock(UserService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new AuthTokenFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filter, "userService", userService);
+        ReflectionTestUtils.setField(filter, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.invokeMethod(filter, "init");
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/vocabulary/new-words");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Test
+    void principalComesFromTheTokenWithoutALookup() throws Exception {
+        UserDetailsImpl signedIn = new UserDetailsImpl(7, "alice", "alice@example.com", "hash", new ArrayList<>());
+        String token = jwtUtils.generateToken(new UsernamePasswordAuthenticationToken(signedIn, null));
+
+        UserDetailsImpl principal = (UserDetailsImpl) authenticate(token).getPrincipal();
+        assertEquals(7, principal.getId());
+        assertEquals("alice", principal.getUsername());
+        assertEquals("alice@example.com", principal.getEmail());
+        assertNull(principal.getPassword());
+        verifyNoInteractions(userService);
+
+        String tampered = token.substring(0, token.length() - 4) + (token.endsWith("AAAA") ? "BBBB" : "AAAA");
+        assertNull(authenticate(tampered));
+        verifyNoInteractions(userService);
+        assertEquals(1, meterRegistry.get("auth.token.filter").tag("outcome", "token").timer().count());
+        assertEquals(1, meterRegistry.get("auth.token.filter").tag("outcome", "invalid").timer().count());
+    }
+
+    @Test
+    void tokensWithoutTheUserIdStillLoadTheUser() throws Exception {
+        String legacy = Jwts.builder().setSubject("bob").setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(SignatureAlgorithm.HS512, SECRET).compact();
+        when(userService.loadUserByUsername("bob")).thenReturn(new UserDetailsImpl(8, "bob", "bob@example.com", "hash", new ArrayList<>()));
+
+        assertEquals(8, ((UserDetailsImpl) authenticate(legacy).getPrincipal()).getId());
+        verify(userService, times(1)).loadUserByUsername("bob");
+        assertEquals(1, meterRegistry.get("auth.token.filter").tag("outcome", "lookup").timer().count());
+    }
+}
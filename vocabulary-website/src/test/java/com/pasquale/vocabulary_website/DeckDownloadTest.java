@@ -0,0 +1,140 @@
+package com.pasquale.vocabulary_website;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pasquale.vocabulary_website.Auth.JwtUtils;
+import com.pasquale.vocabulary_website.Entity.ApplicationUser;
+import com.pasquale.vocabulary_website.Entity.VocabularyItem;
+import com.pasquale.vocabulary_website.Repository.UserRepository;
+import com.pasquale.vocabulary_website.Service.UserDetailsImpl;
+import com.pasquale.vocabulary_website.Service.VocabularyService;
+import com.pasquale.vocabulary_website.Utils.DeckDownload;
+import com.pasquale.vocabulary_website.Utils.VocabularyDeck;
+import com.pasquale.vocabulary_website.Utils.VocabularyJsonFragments;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class DeckDownloadTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private VocabularyService vocabularyService;
+
+    private String bearer;
+    private VocabularyDeck deck;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ApplicationUser user = userRepository.findByUsername("download").orElseGet(() -> {
+            ApplicationUser created = new ApplicationUser();
+            created.setUsername("download");
+            created.setEmail("download@example.com");
+            created.setPassword("x");
+            return userRepository.save(created);
+        });
+        bearer = "Bearer " + jwtUtils.generateToken(
+                new UsernamePasswordAuthenticationToken(UserDetailsImpl.build(user), null, List.of()));
+
+        VocabularyDeck.Builder builder = VocabularyDeck.builder(5);
+        for (int i = 0; i < 5; i++) {
+            builder.add(new VocabularyItem(100L + i, 1L, "Wort " + i, "word " + i, "Satz \"" + i + "\"", "[sound:" + i + ".mp3]"));
+        }
+        deck = builder.build();
+        when(vocabularyService.getDefaultDeck()).thenReturn("german");
+        when(vocabularyService.hasDeck("german")).thenReturn(true);
+        when(vocabularyService.getDeckDownload("german"))
+                .thenReturn(DeckDownload.build(VocabularyJsonFragments.build(deck, objectMapper), 2));
+    }
+
+    private String json(int from, int to) throws Exception {
+        return objectMapper.writeValueAsString(IntStream.range(from, to).mapToObj(deck::item).toList());
+    }
+
+    @Test
+    void servesTheWholeDeckGzipped() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/vocabulary/deck").header(HttpHeaders.AUTHORIZATION, bearer)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+                .andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING)))
+                .andExpect(header().string("X-Total-Count", "5"))
+                .andExpect(header().string("X-Page-Count", "3"));
+
+        byte[] body = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray())).readAllBytes();
+        assertEquals(json(0, 5), new String(body, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void streamsAPlainPageWithoutGzip() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/vocabulary/deck?page=2").header(HttpHeaders.AUTHORIZATION, bearer)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+
+        assertEquals(json(4, 5), result.getResponse().getContentAsString());
+    }
+
+    @Test
+    void answers304WhileTheETagMatches() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/vocabulary/deck?page=0").header(HttpHeaders.AUTHORIZATION, bearer)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(request().asyncStarted()).andReturn();
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/api/vocabulary/deck?page=0").header(HttpHeaders.AUTHORIZATION, bearer)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip").header(HttpHeaders.IF_NONE_MATCH, "\"stale\", W/" + etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().bytes(new byte[0]));
+
+        // Same content from a fresh build keeps the tag; another page or encoding gets its own
+        DeckDownload rebuilt = DeckDownload.build(VocabularyJsonFragments.build(deck, objectMapper), 2);
+        assertEquals(etag, rebuilt.etag(0, true));
+        assertNotEquals(etag, rebuilt.etag(0, false));
+        assertNotEquals(etag, rebuilt.etag(1, true));
+    }
+
+    @Test
+    void answers404PastTheLastPage() throws Exception {
+        mockMvc.perform(get("/api/vocabulary/deck?page=3").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,106 @@
+package com.pasquale.vocabulary_website;
+
+import com.pasquale.vocabulary_website.Auth.JwtUtils;
+import com.pasquale.vocabulary_website.Entity.ApplicationUser;
+import com.pasquale.vocabulary_website.Entity.VocabularyItem;
+import com.pasquale.vocabulary_website.Repository.UserRepository;
+import com.pasquale.vocabulary_website.Service.UserDetailsImpl;
+import com.pasquale.vocabulary_website.Service.VocabularyService;
+import com.pasquale.vocabulary_website.Utils.NewWordEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class NewWordsStreamTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @MockitoBean
+    private VocabularyService vocabularyService;
+
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationUser user = userRepository.findByUsername("stream").orElseGet(() -> {
+            ApplicationUser created = new ApplicationUser();
+            created.setUsername("stream");
+            created.setEmail("stream@example.com");
+            created.setPassword("x");
+            return userRepository.save(created);
+        });
+        bearer = "Bearer " + jwtUtils.generateToken(
+                new UsernamePasswordAuthenticationToken(UserDetailsImpl.build(user), null, List.of()));
+
+        VocabularyItem word = new VocabularyItem(7L, 1L, "die Katze", "the cat", "Die Katze schläft.", "[sound:7.mp3]");
+        when(vocabularyService.getDefaultDeck()).thenReturn("german");
+        when(vocabularyService.hasDeck("german")).thenReturn(true);
+        when(vocabularyService.isDeckReady("german")).thenReturn(true);
+        when(vocabularyService.streamNewWordsForUser(any(), eq("german"), eq(1))).thenReturn(Flux.concat(
+                Flux.just(NewWordEvent.word(word)),
+                Flux.just(NewWordEvent.audio(7L, "http://audio.test/Katze.mp3")).delayElements(Duration.ofMillis(50))));
+    }
+
+    // With a real token, so the async dispatch that completes the response passes the security chain too
+    @Test
+    void streamsNdjsonLines() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/vocabulary/new-words/stream?count=1").header(HttpHeaders.AUTHORIZATION, bearer)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        String[] lines = result.getResponse().getContentAsString().trim().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"type\":\"word\",\"noteId\":7,\"item\":{"), lines[0]);
+        assertEquals("{\"type\":\"audio\",\"noteId\":7,\"audio\":\"http://audio.test/Katze.mp3\"}", lines[1]);
+    }
+
+    @Test
+    void streamsServerSentEvents() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/vocabulary/new-words/stream?count=1").header(HttpHeaders.AUTHORIZATION, bearer)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.startsWith("event:word\ndata:{\"type\":\"word\""), body);
+        assertTrue(body.contains("event:audio\ndata:{\"type\":\"audio\",\"noteId\":7,\"audio\":\"http://audio.test/Katze.mp3\"}"), body);
+    }
+
+    @Test
+    void answers503WhileTheDeckLoads() throws Exception {
+        when(vocabularyService.isDeckReady("german")).thenReturn(false);
+
+        mockMvc.perform(get("/api/vocabulary/new-words/stream").header(HttpHeaders.AUTHORIZATION, bearer).accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"));
+    }
+}
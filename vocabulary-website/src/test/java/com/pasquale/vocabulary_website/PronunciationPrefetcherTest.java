@@ -0,0 +1,123 @@
+package com.pasquale.vocabulary_website;
+
+import com.pasquale.vocabulary_website.Entity.VocabularyItem;
+import com.pasquale.vocabulary_website.Repository.PronunciationRepository;
+import com.pasquale.vocabulary_website.Service.PronunciationPrefetcher;
+import com.pasquale.vocabulary_website.Service.PronunciationService;
+import com.pasquale.vocabulary_website.Service.VocabularyService;
+import com.pasquale.vocabulary_website.Utils.DeckDefinition;
+import com.pasquale.vocabulary_website.Utils.PrefetchStatus;
+import com.pasquale.vocabulary_website.Utils.TokenBucket;
+import com.pasquale.vocabulary_website.Utils.VocabularyDeck;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.pasquale.vocabulary_website.Utils.PronunciationLanguage.GERMAN;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Drives plan() and tick() directly instead of through the scheduler, so each step is deterministic
+class PronunciationPrefetcherTest {
+    private PronunciationService pronunciationService;
+    private PronunciationRepository pronunciationRepository;
+    private PronunciationPrefetcher prefetcher;
+
+    @BeforeEach
+    void setUp() {
+        VocabularyDeck.Builder builder = VocabularyDeck.builder(5);
+        String[] words = {"der Hund", "die Katze", "das Haus", "der Baum", "der Tisch"};
+        for (int i = 0; i < words.length; i++) {
+            builder.add(new VocabularyItem(100L + i, 1L, words[i], "", "", ""));
+        }
+        VocabularyService vocabularyService = mock(VocabularyService.class);
+        when(vocabularyService.getDeckDefinitions()).thenReturn(List.of(
+                new DeckDefinition("german", "german.apkg", new String[]{"German", "English", "Sentence", "Audio"}, GERMAN)));
+        when(vocabularyService.isDeckReady("german")).thenReturn(true);
+        when(vocabularyService.getDeck("german")).thenReturn(builder.build());
+
+        pronunciationService = mock(PronunciationService.class);
+        when(pronunciationService.prefetch(any(), anyString())).thenReturn(Mono.just(Optional.of("http://audio.test/word.mp3")));
+        when(pronunciationService.getForvoQuota()).thenReturn(new TokenBucket(100, Duration.ofDays(1), 0));
+        pronunciationRepository = mock(PronunciationRepository.class);
+        when(pronunciationRepository.findAllWords()).thenReturn(Set.of(GERMAN.key("Hund")));
+
+        prefetcher = new PronunciationPrefetcher(pronunciationService, pronunciationRepository, vocabularyService, true, 5000, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        prefetcher.stop();
+    }
+
+    private void plan() {
+        ReflectionTestUtils.invokeMethod(prefetcher, "plan");
+    }
+
+    private void tick() {
+        ReflectionTestUtils.invokeMethod(prefetcher, "tick");
+    }
+
+    @Test
+    void storedWordsAreNeverFetched() {
+        when(pronunciationService.tryAcquireBackgroundPermit()).thenReturn(true);
+        plan();
+        PrefetchStatus planned = prefetcher.getStatus();
+        assertEquals(5, planned.getTotalWords());
+        assertEquals(1, planned.getKnownWords());
+        assertTrue(planned.isRunning());
+
+        tick();
+        verify(pronunciationService).prefetch(GERMAN, "Katze");
+        verify(pronunciationService, times(1)).prefetch(eq(GERMAN), anyString());
+        assertEquals(1, prefetcher.getStatus().getFetchedThisRun(), "one Forvo call per tick");
+
+        for (int i = 0; i < 3; i++) {
+            tick();
+        }
+        verify(pronunciationService, never()).prefetch(GERMAN, "Hund");
+        verify(pronunciationService, times(4)).prefetch(eq(GERMAN), anyString());
+        PrefetchStatus done = prefetcher.getStatus();
+        assertEquals(4, done.getFetchedThisRun());
+        assertEquals(0, done.getRemainingWords());
+        assertFalse(done.isRunning());
+    }
+
+    @Test
+    void stopsWhenTheQuotaRunsOutAndResumesFromItsCursor() {
+        when(pronunciationService.tryAcquireBackgroundPermit()).thenReturn(true, true, false);
+        plan();
+
+        tick();
+        tick();
+        verify(pronunciationService).prefetch(GERMAN, "Katze");
+        verify(pronunciationService).prefetch(GERMAN, "Haus");
+        verify(pronunciationService, never()).prefetch(GERMAN, "Baum");
+        assertEquals(2, prefetcher.getStatus().getFetchedThisRun());
+        assertTrue(prefetcher.getStatus().isRunning());
+
+        tick();
+        verify(pronunciationService, times(2)).prefetch(eq(GERMAN), anyString());
+        assertTrue(prefetcher.getStatus().isRunning());
+
+        // Quota is back; a word an interactive lookup resolved meanwhile needs no permit
+        when(pronunciationService.tryAcquireBackgroundPermit()).thenReturn(true);
+        when(pronunciationService.isResolved(GERMAN, "Tisch")).thenReturn(true);
+        tick();
+        tick();
+        verify(pronunciationService, times(1)).prefetch(GERMAN, "Katze");
+        verify(pronunciationService).prefetch(GERMAN, "Baum");
+        verify(pronunciationService, never()).prefetch(GERMAN, "Tisch");
+        PrefetchStatus done = prefetcher.getStatus();
+        assertEquals(3, done.getFetchedThisRun());
+        assertEquals(5, done.getKnownWords());
+        assertFalse(done.isRunning());
+    }
+}
@@ -0,0 +1,216 @@
+package com.pasquale.vocabulary_website;
+
+import com.pasquale.vocabulary_website.Entity.Pronunciation;
+import com.pasquale.vocabulary_website.Entity.VocabularyItem;
+import com.pasquale.vocabulary_website.Repository.PronunciationRepository;
+import com.pasquale.vocabulary_website.Service.PronunciationService;
+import com.pasquale.vocabulary_website.Utils.NewWordEvent;
+import com.pasquale.vocabulary_website.Utils.PronunciationLanguage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PronunciationServiceTest {
+
+    private final PronunciationRepository repository = mock(PronunciationRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PronunciationService service(StubForvoServer forvo, int concurrency, long deadlineMs) {
+        return service(forvo, concurrency, deadlineMs, 1_000_000_000L, 0.0);
+    }
+
+    // The bucket starts at the reserve, dailyQuota * interactiveReserve tokens
+    private PronunciationService service(StubForvoServer forvo, int concurrency, long deadlineMs, long dailyQuota, double interactiveReserve) {
+        return new PronunciationService(WebClient.builder(), repository, meterRegistry, "key", forvo.baseUrl(), concurrency, deadlineMs, 1_000, 1, 1, 30, 24, dailyQuota, interactiveReserve, false);
+    }
+
+    private static VocabularyItem item(long noteId, String german) {
+        VocabularyItem item = new VocabularyItem();
+        item.setNoteId(noteId);
+        item.setGerman(german);
+        item.setAudio("[sound:" + noteId + ".mp3]");
+        return item;
+    }
+
+    @Test
+    void enrichesConcurrentlyAndKeepsOrder() throws Exception {
+        try (StubForvoServer forvo = new StubForvoServer(word -> 200)) {
+            PronunciationService service = service(forvo, 10, 3_000);
+            List<VocabularyItem> items = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                items.add(item(i, "das Wort" + i));
+            }
+
+            long start = System.nanoTime();
+            List<VocabularyItem> enriched = service.enrich(items);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            assertTrue(elapsedMs < 1_500, "10 words at 200 ms each should overlap, took " + elapsedMs + " ms");
+            assertEquals(10, enriched.size());
+            for (int i = 0; i < 10; i++) {
+                assertEquals(i, enriched.get(i).getNoteId());
+                assertEquals("http://audio.test/Wort" + i + ".mp3", enriched.get(i).getAudio());
+                assertEquals("[sound:" + i + ".mp3]", items.get(i).getAudio(), "source items must not be modified");
+            }
+        }
+    }
+
+    @Test
+    void keepsAnkiAudioForWordsPastTheDeadline() throws Exception {
+        try (StubForvoServer forvo = new StubForvoServer(word -> word.equals("langsam") ? 10_000 : 10)) {
+            PronunciationService service = service(forvo, 4, 1_500);
+            List<VocabularyItem> items = List.of(item(1, "schnell"), item(2, "langsam"), item(3, "die Zeit"));
+
+            long start = System.nanoTime();
+            List<VocabularyItem> enriched = service.enrich(items);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            assertTrue(elapsedMs < 4_000, "enrichment should stop at the deadline, took " + elapsedMs + " ms");
+            assertEquals("http://audio.test/schnell.mp3", enriched.get(0).getAudio());
+            assertEquals("[sound:2.mp3]", enriched.get(1).getAudio());
+            assertEquals("http://audio.test/Zeit.mp3", enriched.get(2).getAudio());
+        }
+    }
+
+    @Test
+    void timesForvoCallsByOutcome() throws Exception {
+        try (StubForvoServer forvo = new StubForvoServer(word -> word.equals("langsam") ? 10_000 : 10)) {
+            forvo.addUnknownWord("Unbekannt");
+            PronunciationService service = service(forvo, 4, 1_500);
+
+            service.enrich(List.of(item(1, "der Hund"), item(2, "Unbekannt"), item(3, "langsam")));
+
+            for (String outcome : List.of("found", "not_found", "cancelled")) {
+                assertEquals(1, meterRegistry.get("forvo.request").tags("language", "de", "outcome", outcome).timer().count(), outcome);
+            }
+            assertEquals(0, meterRegistry.get("forvo.request").tags("language", "de", "outcome", "error").timer().count());
+        }
+    }
+
+    @Test
+    void keepsAnkiAudioOnceTheQuotaIsSpent() throws Exception {
+        try (StubForvoServer forvo = new StubForvoServer(word -> 0)) {
+            PronunciationService service = service(forvo, 1, 3_000, 4, 0.5);
+
+            List<VocabularyItem> enriched = service.enrich(List.of(item(1, "der Hund"), item(2, "die Katze"), item(3, "die Maus")));
+
+            assertEquals(2, forvo.requestCount(), "two tokens, two Forvo calls");
+            assertEquals("http://audio.test/Hund.mp3", enriched.get(0).getAudio());
+            assertEquals("http://audio.test/Katze.mp3", enriched.get(1).getAudio());
+            assertEquals("[sound:3.mp3]", enriched.get(2).getAudio());
+            assertFalse(service.isResolved(PronunciationLanguage.GERMAN, "Maus"), "a refused lookup is not an answer");
+            assertEquals(0, service.getForvoQuota().available(), 1e-3);
+        }
+    }
+
+    @Test
+    void cachesFoundAndMissingPronunciations() throws Exception {
+        try (StubForvoServer forvo = new StubForvoServer(word -> 0)) {
+            forvo.addUnknownWord("Unbekannt");
+            PronunciationService service = service(forvo, 4, 3_000);
+            List<VocabularyItem> items = List.of(item(1, "der Hund"), item(2, "Unbekannt"));
+
+            List<VocabularyItem> first = service.enrich(items);
+            List<VocabularyItem> second = service.enrich(items);
+
+            assertEquals(2, forvo.requestCount(), "second request should be served from the cache");
+            assertEquals("http://audio.test/Hund.mp3", second.get(0).getAudio());
+            assertEquals("[sound:2.mp3]", first.get(1).getAudio());
+            assertEquals("[sound:2.mp3]", second.get(1).getAudio());
+            assertEquals(2, service.getCacheStats().hitCount());
+            assertEquals(2, service.getCacheStats().missCount());
+        }
+    }
+
+    @Test
+    void servesStoredPronunciationsAndPersistsNewOnes() throws Exception {
+        try (StubForvoServer forvo = new StubForvoServer(word -> 0)) {
+            when(repository.findAll()).thenReturn(List.of(
+                    new Pronunciation("de:Katze", "http://stored.test/Katze.mp3", LocalDateTime.now().minusDays(1))));
+            PronunciationService service = service(forvo, 4, 3_000);
+            service.loadStoredPronunciations();
+
+            List<VocabularyItem> enriched = service.enrich(List.of(item(1, "die Katze"), item(2, "der Vogel")));
+
+            assertEquals("http://stored.test/Katze.mp3", enriched.get(0).getAudio());
+            assertEquals("http://audio.test/Vogel.mp3", enriched.get(1).getAudio());
+            assertEquals(1, forvo.requestCount(), "only the word missing from the store should reach Forvo");
+            ArgumentCaptor<Pronunciation> saved = ArgumentCaptor.forClass(Pronunciation.class);
+            verify(repository, timeout(2_000)).save(saved.capture());
+            assertEquals("de:Vogel", saved.getValue().getWord());
+            assertEquals("http://audio.test/Vogel.mp3", saved.getValue().getMp3Url());
+        }
+    }
+
+    @Test
+    void refreshesStaleStoredPronunciationsInTheBackground() throws Exception {
+        try (StubForvoServer forvo = new StubForvoServer(word -> 0)) {
+            when(repository.findAll()).thenReturn(List.of(
+                    new Pronunciation("de:Maus", "http://stored.test/Maus.mp3", LocalDateTime.now().minusDays(90))));
+            PronunciationService service = service(forvo, 4, 3_000);
+            service.loadStoredPronunciations();
+
+            List<VocabularyItem> enriched = service.enrich(List.of(item(1, "die Maus")));
+
+            assertEquals("http://stored.test/Maus.mp3", enriched.get(0).getAudio(), "stale value is still served");
+            verify(repository, timeout(2_000)).save(argThat(p -> p.getWord().equals("de:Maus")
+                    && p.getMp3Url().equals("http://audio.test/Maus.mp3")));
+        }
+    }
+
+    @Test
+    void streamsWordsBeforeTheirPronunciations() throws Exception {
+        try (StubForvoServer forvo = new StubForvoServer(word -> word.equals("Hund") ? 0 : 500)) {
+            PronunciationService service = service(forvo, 4, 3_000);
+            service.enrich(List.of(item(1, "der Hund")));
+            List<VocabularyItem> items = List.of(item(1, "der Hund"), item(2, "die Katze"), item(3, "die Maus"));
+
+            long start = System.nanoTime();
+            NewWordEvent first = service.enrichAsStream(items, PronunciationLanguage.GERMAN).blockFirst();
+            long firstMs = (System.nanoTime() - start) / 1_000_000;
+            List<NewWordEvent> events = service.enrichAsStream(items, PronunciationLanguage.GERMAN).collectList().block();
+
+            assertTrue(firstMs < 400, "the first word should not wait on Forvo, took " + firstMs + " ms");
+            assertEquals(5, events.size());
+            for (int i = 0; i < 3; i++) {
+                assertEquals(NewWordEvent.WORD, events.get(i).getType());
+                assertEquals(items.get(i).getNoteId(), events.get(i).getNoteId());
+            }
+            assertEquals("http://audio.test/Hund.mp3", events.get(0).getItem().getAudio(), "cached audio is sent with the word");
+            assertEquals("[sound:2.mp3]", events.get(1).getItem().getAudio());
+            Map<Long, String> updates = new HashMap<>();
+            for (NewWordEvent event : events.subList(3, 5)) {
+                assertEquals(NewWordEvent.AUDIO, event.getType());
+                updates.put(event.getNoteId(), event.getAudio());
+            }
+            assertEquals(Map.of(2L, "http://audio.test/Katze.mp3", 3L, "http://audio.test/Maus.mp3"), updates);
+        }
+    }
+
+    @Test
+    void cancellingTheStreamCancelsPendingLookups() throws Exception {
+        try (StubForvoServer forvo = new StubForvoServer(word -> 1_000)) {
+            PronunciationService service = service(forvo, 4, 3_000);
+            List<VocabularyItem> items = List.of(item(1, "schnell"), item(2, "langsam"));
+
+            // Take the two words and disconnect while their lookups are in flight
+            List<NewWordEvent> received = service.enrichAsStream(items, PronunciationLanguage.GERMAN)
+                    .take(2).collectList().block();
+            Thread.sleep(1_500);
+
+            assertEquals(2, received.size());
+            verify(repository, never()).save(any());
+            assertFalse(service.isResolved(PronunciationLanguage.GERMAN, "schnell"), "a cancelled lookup must not be cached");
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.pasquale.vocabulary_website;
+
+import com.pasquale.vocabulary_website.Entity.ApplicationUser;
+import com.pasquale.vocabulary_website.Entity.UserWord;
+import com.pasquale.vocabulary_website.Repository.UserWordRepository;
+import com.pasquale.vocabulary_website.Service.ReviewService;
+import com.pasquale.vocabulary_website.Service.VocabularyService;
+import com.pasquale.vocabulary_website.Utils.DueCard;
+import com.pasquale.vocabulary_website.Utils.DueCardsResponse;
+import com.pasquale.vocabulary_website.Utils.SpacedRepetition;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest
+@Import(SimpleMeterRegistry.class)
+class ReviewQueueTest {
+    private static final int WORDS_PER_USER = 50_000;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserWordRepository userWordRepository;
+
+    private ApplicationUser user(String name) {
+        ApplicationUser user = new ApplicationUser();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("x");
+        return entityManager.persistAndFlush(user);
+    }
+
+    // Reviewed words spread 30 days either side of now; returns how many of them are due
+    private int insertReviewedWords(ApplicationUser user, LocalDateTime now, long seed) {
+        Random random = new Random(seed);
+        List<Object[]> rows = new ArrayList<>(WORDS_PER_USER);
+        int due = 0;
+        for (int i = 0; i < WORDS_PER_USER; i++) {
+            // Whole minutes, so many cards share a due time and the id tie-break is exercised
+            LocalDateTime dueAt = now.withNano(0).withSecond(0).plusMinutes(random.nextInt(60 * 24 * 60) - 60 * 24 * 30);
+            // Nothing falls due while the test runs, or the service's later clock would count it and the test's wouldn't
+            if (dueAt.isAfter(now) && dueAt.isBefore(now.plusMinutes(5))) {
+                dueAt = dueAt.plusMinutes(5);
+            }
+            if (!dueAt.isAfter(now)) {
+                due++;
+            }
+            rows.add(new Object[]{user.getId(), 1_500_000_000_000L + i, Timestamp.valueOf(now.minusDays(40)),
+                    2.5, 6, 2, Timestamp.valueOf(dueAt)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO user_words (user_id, anki_note_id, added_at, ease_factor, interval_days,"
+                + " repetitions, due_at) VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+        return due;
+    }
+
+    @Test
+    void dueQueuePagesThroughTheIndexInOrder() {
+        LocalDateTime now = LocalDateTime.now();
+        ApplicationUser alice = user("alice");
+        ApplicationUser bob = user("bob");
+        int aliceDue = insertReviewedWords(alice, now, 1);
+        insertReviewedWords(bob, now, 2);
+        ReviewService reviewService = new ReviewService(userWordRepository, mock(VocabularyService.class));
+
+        List<DueCard> cards = new ArrayList<>();
+        Set<Long> noteIds = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        long start = System.nanoTime();
+        do {
+            DueCardsResponse page = reviewService.getDueCards(alice.getId(), cursor, ReviewService.MAX_PAGE_SIZE);
+            cards.addAll(page.getCards());
+            cursor = page.getNextCursor();
+            pages++;
+            entityManager.clear(); // Each page is its own request in the app
+        } while (cursor != null);
+        System.out.println("Paged " + cards.size() + " due cards in " + pages + " pages, "
+                + (System.nanoTime() - start) / 1_000 / pages + " us per page");
+
+        assertEquals(aliceDue, cards.size());
+        for (int i = 0; i < cards.size(); i++) {
+            assertTrue(noteIds.add(cards.get(i).getNoteId()), "each due card is returned once");
+            assertFalse(cards.get(i).getDueAt().isAfter(now));
+            if (i > 0) {
+                assertFalse(cards.get(i).getDueAt().isBefore(cards.get(i - 1).getDueAt()));
+            }
+        }
+
+        // The SQL Hibernate generates for findDueAfter
+        String plan = jdbcTemplate.queryForObject("EXPLAIN SELECT * FROM user_words uw WHERE uw.user_id = " + alice.getId()
+                + " AND uw.due_at >= TIMESTAMP '" + Timestamp.valueOf(now.minusDays(10)) + "'"
+                + " AND uw.due_at <= TIMESTAMP '" + Timestamp.valueOf(now) + "'"
+                + " AND (uw.due_at > TIMESTAMP '" + Timestamp.valueOf(now.minusDays(10)) + "' OR uw.id > 100)"
+                + " ORDER BY uw.user_id, uw.due_at, uw.id FETCH FIRST 100 ROWS ONLY", String.class);
+        // A bounded range over the composite index, read in index order: no per-user scan and no sort
+        assertTrue(plan.toUpperCase().contains("IDX_USER_WORDS_USER_DUE"), "due query should use the (user_id, due_at, id) index:\n" + plan);
+        assertTrue(plan.contains("DUE_AT >="), "the cursor should bound the index range:\n" + plan);
+        assertTrue(plan.contains("index sorted"), "rows should come in index order:\n" + plan);
+    }
+
+    @Test
+    void gradingReschedulesTheCard() {
+        LocalDateTime now = LocalDateTime.now();
+        ApplicationUser alice = user("alice");
+        UserWord word = userWordRepository.save(new UserWord(alice, 42L));
+        ReviewService reviewService = new ReviewService(userWordRepository, mock(VocabularyService.class));
+        assertEquals(1, reviewService.getDueCards(alice.getId(), null, 10).getCards().size());
+
+        DueCard graded = reviewService.grade(alice.getId(), 42L, 5).orElseThrow();
+        assertEquals(1, graded.getIntervalDays());
+        assertEquals(1, graded.getRepetitions());
+        assertTrue(graded.getDueAt().isAfter(now.plusHours(23)));
+        assertEquals(0, reviewService.getDueCards(alice.getId(), null, 10).getCards().size());
+        assertTrue(reviewService.grade(alice.getId(), 43L, 5).isEmpty());
+
+        // The managed entity carries the review above; the next passing reviews give 6 days, then 6 * ease
+        // and a lapse starts over and lowers the ease
+        SpacedRepetition.review(word, 4, now);
+        assertEquals(6, word.getIntervalDays());
+        SpacedRepetition.review(word, 4, now);
+        assertEquals(Math.round(6 * word.getEaseFactor()), word.getIntervalDays(), 1);
+        double ease = word.getEaseFactor();
+        SpacedRepetition.review(word, 1, now);
+        assertEquals(1, word.getIntervalDays());
+        assertEquals(0, word.getRepetitions());
+        assertTrue(word.getEaseFactor() < ease);
+        assertThrows(IllegalArgumentException.class, () -> SpacedRepetition.review(word, 6, now));
+    }
+}
@@ -0,0 +1,268 @@
+package com.pasquale.vocabulary_website;
+
+import com.pasquale.vocabulary_website.Entity.ApplicationUser;
+import com.pasquale.vocabulary_website.Entity.UserProgress;
+import com.pasquale.vocabulary_website.Entity.UserWord;
+import com.pasquale.vocabulary_website.Repository.UserProgressRepository;
+import com.pasquale.vocabulary_website.Repository.UserRepository;
+import com.pasquale.vocabulary_website.Repository.UserWordRepository;
+import com.pasquale.vocabulary_website.Service.ProgressMigration;
+import com.pasquale.vocabulary_website.Service.SeenNotesCache;
+import com.pasquale.vocabulary_website.Service.SeenNotesStore;
+import com.pasquale.vocabulary_website.Utils.AnkiDatasetReader;
+import com.pasquale.vocabulary_website.Utils.NoteIdSet;
+import com.pasquale.vocabulary_website.Utils.ProgressMigrationStatus;
+import com.pasquale.vocabulary_website.Utils.UnseenWordSampler;
+import com.pasquale.vocabulary_website.Utils.VocabularyDeck;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Write-through only happens after commit, so these run real transactions instead of the usual rolled-back test one
+@DataJpaTest
+@Import(SimpleMeterRegistry.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SeenNotesCacheTest {
+    private static final String DECK = "german";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserWordRepository userWordRepository;
+
+    @Autowired
+    private UserProgressRepository progressRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ApplicationUser user;
+
+    @AfterEach
+    void tearDown() {
+        progressRepository.deleteAll();
+        userWordRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    private SeenNotesStore store(boolean compact) {
+        return new SeenNotesStore(userWordRepository, progressRepository, userRepository, compact);
+    }
+
+    // Two caches over one database stand in for two app instances
+    private SeenNotesCache cache(SimpleMeterRegistry registry, boolean compact) {
+        return new SeenNotesCache(store(compact), userRepository, registry, 64);
+    }
+
+    private VocabularyDeck deck(Path tempDir) throws Exception {
+        VocabularyDeck.Builder builder = VocabularyDeck.builder(200);
+        new AnkiDatasetReader().readVocabularyItems(SyntheticAnkiDeck.write(tempDir, 200).toString(), builder::add);
+        return builder.build().withVersion(1);
+    }
+
+    private ApplicationUser user(String name) {
+        ApplicationUser user = new ApplicationUser();
+        user.setUsername(name);
+        user.setEmail(name + "@example.com");
+        user.setPassword("x");
+        return userRepository.save(user);
+    }
+
+    private static double loads(SimpleMeterRegistry registry) {
+        return registry.get("vocabulary.seen.loads").counter().count();
+    }
+
+    // What VocabularyService.getNewWordsForUser does with the cache, in one transaction
+    private void handOut(SeenNotesCache cache, VocabularyDeck deck, int count, boolean rollback) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            record(cache, cache.get(user.getId(), DECK, deck), deck, count);
+            if (rollback) {
+                status.setRollbackOnly();
+            }
+        });
+    }
+
+    private void record(SeenNotesCache cache, SeenNotesCache.Snapshot snapshot, VocabularyDeck deck, int count) {
+        BitSet seen = snapshot.copySeen();
+        int[] picked = UnseenWordSampler.sample(seen, deck.size(), count, new Random(count));
+        List<UserWord> words = new ArrayList<>();
+        for (int ordinal : picked) {
+            words.add(new UserWord(user, deck.noteId(ordinal)));
+        }
+        userWordRepository.insertAll(words);
+        cache.recordHandedOut(snapshot, seen, words.stream().mapToLong(UserWord::getAnkiNoteId).toArray());
+    }
+
+    private int seenCount(SeenNotesCache cache, VocabularyDeck deck) {
+        return new TransactionTemplate(transactionManager).execute(status ->
+                cache.get(user.getId(), DECK, deck).copySeen().cardinality());
+    }
+
+    @ParameterizedTest(name = "compact = {0}")
+    @ValueSource(booleans = {false, true})
+    void handOutsWriteThroughAndOtherInstancesWritesAreDetected(boolean compact, @TempDir Path tempDir) throws Exception {
+        VocabularyDeck deck = deck(tempDir);
+        user = user("carol");
+        SimpleMeterRegistry registryA = new SimpleMeterRegistry();
+        SimpleMeterRegistry registryB = new SimpleMeterRegistry();
+        SeenNotesCache instanceA = cache(registryA, compact);
+        SeenNotesCache instanceB = cache(registryB, compact);
+
+        handOut(instanceA, deck, 10, false);
+        handOut(instanceA, deck, 10, false);
+        assertEquals(20, seenCount(instanceA, deck));
+        assertEquals(1, loads(registryA), "the second request and the read use the written-through bitmap");
+
+        handOut(instanceB, deck, 10, false);
+        assertEquals(1, loads(registryB));
+        assertEquals(30, seenCount(instanceA, deck), "B's hand-out moved the counter, so A reloads");
+        assertEquals(2, loads(registryA));
+
+        handOut(instanceA, deck, 10, true);
+        assertEquals(30, seenCount(instanceA, deck), "a rolled-back hand-out is never cached");
+        assertEquals(2, loads(registryA));
+        assertEquals(30, userWordRepository.count());
+
+        assertEquals(30, seenCount(instanceA, deck.withVersion(2)), "a reloaded deck rebuilds the bitmap");
+        assertEquals(3, loads(registryA));
+        assertEquals(compact ? 30 : null, progressRepository.findById(user.getId()).map(UserProgress::getNoteCount).orElse(null));
+    }
+
+    // Both draw with the same seed: without the row lock the second would sample the first's snapshot and pick the same notes
+    @Test
+    void concurrentHandOutsForOneUserNeverRepeatANote(@TempDir Path tempDir) throws Exception {
+        VocabularyDeck deck = deck(tempDir);
+        user = user("frank");
+        SeenNotesCache cache = cache(new SimpleMeterRegistry(), false);
+        CountDownLatch firstHasItsSnapshot = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> second = executor.submit(() -> {
+                firstHasItsSnapshot.await();
+                handOut(cache, deck, 10, false);
+                return null;
+            });
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                SeenNotesCache.Snapshot snapshot = cache.get(user.getId(), DECK, deck);
+                firstHasItsSnapshot.countDown();
+                try {
+                    Thread.sleep(300); // Long enough for the second hand-out to reach get()
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                record(cache, snapshot, deck, 10);
+            });
+            second.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Long> noteIds = userWordRepository.findAll().stream().map(UserWord::getAnkiNoteId).toList();
+        assertEquals(20, noteIds.size());
+        assertEquals(20, new HashSet<>(noteIds).size());
+    }
+
+    @Test
+    void handOutsWithTheModeOffLeaveTheRowStaleUntilTheNextOneWithItOn(@TempDir Path tempDir) throws Exception {
+        VocabularyDeck deck = deck(tempDir);
+        user = user("erin");
+        SeenNotesStore compact = store(true);
+        SeenNotesCache withMode = new SeenNotesCache(compact, userRepository, new SimpleMeterRegistry(), 64);
+        SeenNotesCache withoutMode = cache(new SimpleMeterRegistry(), false);
+
+        handOut(withMode, deck, 10, false);
+        assertEquals(10, progressRepository.findById(user.getId()).orElseThrow().getNoteCount());
+        handOut(withoutMode, deck, 10, false);
+        assertEquals(10, progressRepository.findById(user.getId()).orElseThrow().getNoteCount());
+
+        long version = userRepository.findWordsVersion(user.getId());
+        LongStream.Builder read = LongStream.builder();
+        compact.forEachSeenNoteId(user.getId(), version, read::add);
+        assertEquals(20, read.build().count(), "a stale row is bypassed for user_words");
+        assertEquals(List.of(user.getId()), compact.findUnmigratedUserIds());
+
+        handOut(withMode, deck, 10, false);
+        UserProgress progress = progressRepository.findById(user.getId()).orElseThrow();
+        assertEquals(30, progress.getNoteCount(), "rebuilt from user_words rather than merged into the stale set");
+        assertEquals(version + 1, progress.getWordsVersion());
+        assertTrue(compact.findUnmigratedUserIds().isEmpty());
+    }
+
+    @Test
+    void migrationPacksExistingWordsAndReadsMatchTheRows(@TempDir Path tempDir) throws Exception {
+        VocabularyDeck deck = deck(tempDir);
+        user = user("dave");
+        List<UserWord> words = new ArrayList<>();
+        for (int ordinal = 0; ordinal < deck.size(); ordinal += 3) {
+            words.add(new UserWord(user, deck.noteId(ordinal)));
+        }
+        userWordRepository.insertAll(words);
+        SeenNotesStore rows = store(false);
+        SeenNotesStore compact = store(true);
+
+        LongStream.Builder fromRows = LongStream.builder();
+        rows.forEachSeenNoteId(user.getId(), 0, fromRows::add);
+        LongStream.Builder beforeMigration = LongStream.builder();
+        compact.forEachSeenNoteId(user.getId(), 0, beforeMigration::add);
+        long[] expected = fromRows.build().sorted().toArray();
+        assertArrayEquals(expected, beforeMigration.build().sorted().toArray(), "unmigrated users read user_words");
+
+        assertEquals(List.of(user.getId()), compact.findUnmigratedUserIds());
+        ProgressMigration migration = new ProgressMigration(compact, transactionManager);
+        try {
+            migration.start().get();
+            ProgressMigrationStatus status = migration.getStatus();
+            assertFalse(status.isRunning());
+            assertEquals(1, status.getTotalUsers());
+            assertEquals(1, status.getMigratedUsers());
+            assertEquals(0, status.getRemainingUsers());
+
+            migration.start().get();
+            assertEquals(0, migration.getStatus().getTotalUsers(), "a rerun finds nobody left");
+        } finally {
+            migration.stop();
+        }
+        // Built by hand, so without the @Transactional proxy
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        assertEquals(Boolean.FALSE, transaction.execute(status -> compact.migrate(user.getId())));
+        assertTrue(compact.findUnmigratedUserIds().isEmpty());
+
+        UserProgress progress = progressRepository.findById(user.getId()).orElseThrow();
+        assertEquals(expected.length, progress.getNoteCount());
+        assertArrayEquals(expected, NoteIdSet.decode(progress.getSeenNotes()));
+        System.out.printf("%d seen notes: %d bytes packed%n", expected.length, progress.getSeenNotes().length);
+        assertTrue(progress.getSeenNotes().length < expected.length * 3);
+
+        long[] merged = NoteIdSet.decode(NoteIdSet.merge(progress.getSeenNotes(), new long[]{expected[0], 7L, Long.MAX_VALUE, 7L}));
+        assertEquals(expected.length + 2, merged.length);
+        assertEquals(7L, merged[0]);
+        assertEquals(Long.MAX_VALUE, merged[merged.length - 1]);
+        assertArrayEquals(new long[0], NoteIdSet.decode(NoteIdSet.EMPTY));
+    }
+}
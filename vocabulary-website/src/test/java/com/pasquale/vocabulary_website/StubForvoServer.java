@@ -0,0 +1,71 @@
+package com.pasquale.vocabulary_website;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+
+// Local stand-in for the Forvo word-pronunciations API; answers every word with http://audio.test/<word>.mp3
+public class StubForvoServer implements AutoCloseable {
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final Set<String> unknownWords = ConcurrentHashMap.newKeySet();
+
+    public StubForvoServer(ToLongFunction<String> delayMsForWord) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            String path = exchange.getRequestURI().getRawPath();
+            String word = URLDecoder.decode(path.replaceAll(".*/word/([^/]+)/.*", "$1"), StandardCharsets.UTF_8);
+            try {
+                Thread.sleep(delayMsForWord.applyAsLong(word));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String json = unknownWords.contains(word)
+                    ? "{\"items\":[]}"
+                    : "{\"items\":[{\"pathmp3\":\"http://audio.test/" + word + ".mp3\"}]}";
+            byte[] body = json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            try {
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            } catch (IOException e) {
+                // Client gave up on this word (deadline or cancellation)
+            }
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    // Forvo has no pronunciation for this word
+    public void addUnknownWord(String word) {
+        unknownWords.add(word);
+    }
+
+    public int requestCount() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,78 @@
+package com.pasquale.vocabulary_website;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Writes .apkg files shaped like the German deck (col.models JSON + notes table) so tests and benchmarks run offline
+public final class SyntheticAnkiDeck {
+    public static final long MODEL_ID = 1342697561419L;
+    public static final long FIRST_NOTE_ID = 1_500_000_000_000L;
+
+    private static final String[] ARTICLES = {"der", "die", "das", ""};
+    private static final String[] STEMS = {"Straße", "Mädchen", "Brücke", "Hund", "Übung", "Bäcker", "Schlüssel", "Größe", "Fluss", "Wort"};
+
+    private SyntheticAnkiDeck() {}
+
+    public static Path write(Path directory, int notes) throws IOException, SQLException {
+        Path db = Files.createTempFile(directory, "collection_", ".anki2");
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + db.toAbsolutePath())) {
+            connection.setAutoCommit(false);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("CREATE TABLE col (id integer primary key, models text not null)");
+                stmt.executeUpdate("CREATE TABLE notes (id integer primary key, mid integer not null, flds text not null)");
+            }
+            String models = "{\"" + MODEL_ID + "\": {\"name\": \"German\", \"flds\": ["
+                    + "{\"name\": \"German\", \"ord\": 0}, {\"name\": \"English\", \"ord\": 1},"
+                    + "{\"name\": \"Audio\", \"ord\": 2}, {\"name\": \"Sample sentence\", \"ord\": 3},"
+                    + "{\"name\": \"Notes\", \"ord\": 4}]}}";
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO col (id, models) VALUES (1, ?)")) {
+                insert.setString(1, models);
+                insert.executeUpdate();
+            }
+            Random random = new Random(notes);
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO notes (id, mid, flds) VALUES (?, ?, ?)")) {
+                for (int i = 0; i < notes; i++) {
+                    String stem = STEMS[random.nextInt(STEMS.length)] + i;
+                    String article = ARTICLES[random.nextInt(ARTICLES.length)];
+                    String german = article.isEmpty() ? stem : article + " " + stem;
+                    String flds = String.join("\u001f",
+                            german,
+                            "english word " + i,
+                            "[sound:note_" + i + ".mp3]",
+                            "Das ist ein Satz mit " + stem + ".",
+                            "");
+                    insert.setLong(1, FIRST_NOTE_ID + i);
+                    insert.setLong(2, MODEL_ID);
+                    insert.setString(3, flds);
+                    insert.addBatch();
+                    if (i % 10_000 == 9_999) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+        }
+
+        Path apkg = Files.createTempFile(directory, "deck_", ".apkg");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(apkg))) {
+            zip.putNextEntry(new ZipEntry("media"));
+            zip.write("{}".getBytes());
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("collection.anki2"));
+            Files.copy(db, zip);
+            zip.closeEntry();
+        }
+        Files.delete(db);
+        return apkg;
+    }
+}
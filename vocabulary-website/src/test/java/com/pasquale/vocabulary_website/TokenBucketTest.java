@@ -0,0 +1,58 @@
+package com.pasquale.vocabulary_website;
+
+import com.pasquale.vocabulary_website.Utils.TokenBucket;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+    private static final long HOUR = Duration.ofHours(1).toNanos();
+
+    private final AtomicLong now = new AtomicLong();
+
+    // 100 tokens a day, on a clock the test moves
+    private TokenBucket bucket(double initialTokens) {
+        return new TokenBucket(100, Duration.ofDays(1), initialTokens, now::get);
+    }
+
+    @Test
+    void refillsContinuouslyUpToCapacity() {
+        TokenBucket bucket = bucket(0);
+        assertEquals(0, bucket.available(), 1e-9);
+
+        now.addAndGet(6 * HOUR);
+        assertEquals(25, bucket.available(), 1e-9);
+
+        now.addAndGet(48 * HOUR);
+        assertEquals(100, bucket.available(), 1e-9, "never more than a period's worth");
+        assertEquals(100, bucket(500).available(), 1e-9);
+    }
+
+    @Test
+    void backgroundWorkStopsAtTheReserveAndInteractiveWorkAtZero() {
+        TokenBucket bucket = bucket(22);
+        double reserve = 20;
+
+        assertTrue(bucket.tryConsume(reserve));
+        assertTrue(bucket.tryConsume(reserve));
+        assertFalse(bucket.tryConsume(reserve), "a third token would break into the reserve");
+        assertEquals(20, bucket.available(), 1e-9);
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(bucket.tryConsume(0), "interactive lookups may spend the reserve");
+        }
+        assertFalse(bucket.tryConsume(0), "but never overdraw");
+        assertEquals(0, bucket.available(), 1e-9);
+        assertFalse(bucket.tryConsume(reserve));
+
+        // Back at the reserve is not enough: background work needs a whole token above it
+        now.addAndGet(HOUR * 24 * 20 / 100);
+        assertFalse(bucket.tryConsume(reserve));
+        now.addAndGet(HOUR);
+        assertTrue(bucket.tryConsume(reserve));
+        assertEquals(20 + 100.0 / 24 - 1, bucket.available(), 1e-6);
+    }
+}
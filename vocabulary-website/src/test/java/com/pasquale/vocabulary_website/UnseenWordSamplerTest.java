@@ -0,0 +1,82 @@
+package com.pasquale.vocabulary_website;
+
+import com.pasquale.vocabulary_website.Utils.UnseenWordSampler;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UnseenWordSamplerTest {
+
+    @Test
+    void returnsDistinctUnseenOrdinals() {
+        int deckSize = 1_000;
+        BitSet seen = new BitSet(deckSize);
+        for (int i = 0; i < deckSize; i += 3) {
+            seen.set(i);
+        }
+        BitSet before = (BitSet) seen.clone();
+
+        int[] picked = UnseenWordSampler.sample(seen, deckSize, 50, new Random(42));
+
+        assertEquals(50, picked.length);
+        Set<Integer> distinct = new HashSet<>();
+        for (int ordinal : picked) {
+            assertFalse(before.get(ordinal), "ordinal " + ordinal + " was already seen");
+            assertTrue(seen.get(ordinal), "picked ordinal should be marked as seen");
+            assertTrue(distinct.add(ordinal), "duplicate ordinal " + ordinal);
+        }
+    }
+
+    @Test
+    void handlesNearlyFinishedDeck() {
+        int deckSize = 100_000;
+        BitSet seen = new BitSet(deckSize);
+        seen.set(0, deckSize);
+        int[] left = {7, 4_242, 55_555, 99_999};
+        for (int ordinal : left) {
+            seen.clear(ordinal);
+        }
+
+        int[] picked = UnseenWordSampler.sample(seen, deckSize, 10, new Random(1));
+
+        assertEquals(left.length, picked.length);
+        Set<Integer> expected = new HashSet<>();
+        for (int ordinal : left) expected.add(ordinal);
+        Set<Integer> actual = new HashSet<>();
+        for (int ordinal : picked) actual.add(ordinal);
+        assertEquals(expected, actual);
+        assertEquals(deckSize, seen.cardinality());
+    }
+
+    @Test
+    void reportsProbesAndTheFallbackScan() {
+        int[] observed = new int[2];
+        UnseenWordSampler.Observer observer = (probes, scanned) -> {
+            observed[0] = probes;
+            observed[1] = scanned;
+        };
+
+        UnseenWordSampler.sample(new BitSet(), 100_000, 10, new Random(3), observer);
+        assertTrue(observed[0] >= 10, "probes " + observed[0]);
+        assertEquals(0, observed[1]);
+
+        BitSet seen = new BitSet(100_000);
+        seen.set(1, 100_000);
+        UnseenWordSampler.sample(seen, 100_000, 10, new Random(3), observer);
+        assertEquals(16, observed[0]);
+        assertEquals(1, observed[1]);
+    }
+
+    @Test
+    void returnsNothingWhenDeckIsExhausted() {
+        BitSet seen = new BitSet(10);
+        seen.set(0, 10);
+        assertEquals(0, UnseenWordSampler.sample(seen, 10, 5, new Random()).length);
+        assertEquals(0, UnseenWordSampler.sample(new BitSet(), 0, 5, new Random()).length);
+    }
+}
@@ -0,0 +1,119 @@
+package com.pasquale.vocabulary_website;
+
+import com.pasquale.vocabulary_website.Entity.ApplicationUser;
+import com.pasquale.vocabulary_website.Entity.UserWord;
+import com.pasquale.vocabulary_website.Repository.UserWordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(SimpleMeterRegistry.class)
+class UserWordBulkInsertTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserWordRepository userWordRepository;
+
+    @Autowired
+    private SimpleMeterRegistry meterRegistry;
+
+    private ApplicationUser user;
+
+    @BeforeEach
+    void setUp() {
+        user = new ApplicationUser();
+        user.setUsername("alice");
+        user.setEmail("alice@example.com");
+        user.setPassword("x");
+        user = entityManager.persistAndFlush(user);
+    }
+
+    private List<UserWord> words(long firstNoteId, int count) {
+        List<UserWord> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            words.add(new UserWord(user, firstNoteId + i));
+        }
+        return words;
+    }
+
+    // Executions of INSERTs into user_words since statistics were reset, from H2's per-statement counters
+    private long insertStatements() {
+        Long count = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(EXECUTION_COUNT), 0) FROM INFORMATION_SCHEMA.QUERY_STATISTICS"
+                + " WHERE UPPER(SQL_STATEMENT) LIKE 'INSERT INTO USER_WORDS%'", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    private void resetStatementCounts() {
+        jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+        jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+    }
+
+    @Test
+    void fiftyWordsTakeOneStatementInsteadOfFifty() {
+        resetStatementCounts();
+        userWordRepository.saveAll(words(1_000, 50));
+        entityManager.flush();
+        long perEntity = insertStatements();
+
+        long batchesBefore = meterRegistry.get("vocabulary.user_words.insert").timer().count();
+        double rowsBefore = meterRegistry.get("vocabulary.user_words.insert.rows").summary().totalAmount();
+        resetStatementCounts();
+        assertEquals(50, userWordRepository.insertAll(words(2_000, 50)));
+        long bulk = insertStatements();
+
+        resetStatementCounts();
+        assertEquals(1_200, userWordRepository.insertAll(words(3_000, 1_200)));
+        long chunked = insertStatements();
+
+        assertEquals(50, perEntity, "IDENTITY ids: saveAll inserts row by row");
+        assertEquals(1, bulk);
+        assertEquals(3, chunked, "1200 rows in chunks of 500");
+        // The registry lives as long as the cached context, so other test classes may have inserted too
+        assertEquals(2, meterRegistry.get("vocabulary.user_words.insert").timer().count() - batchesBefore);
+        assertEquals(1_250, meterRegistry.get("vocabulary.user_words.insert.rows").summary().totalAmount() - rowsBefore);
+
+        entityManager.clear();
+        assertEquals(1_300, userWordRepository.findAnkiNoteIdsByUser(user).size());
+        UserWord stored = userWordRepository.findByUserIdAndNoteId(user.getId(), 2_049L).orElseThrow();
+        assertEquals(UserWord.INITIAL_EASE_FACTOR, stored.getEaseFactor());
+        assertNotNull(stored.getDueAt());
+        assertNotNull(stored.getCreated());
+    }
+
+    @Test
+    void bulkInsertOutpacesSaveAll() {
+        int requests = 200;
+        long start = System.nanoTime();
+        for (int r = 0; r < requests; r++) {
+            userWordRepository.saveAll(words(100_000 + r * 50L, 50));
+            entityManager.flush();
+            entityManager.clear();
+        }
+        long saveAll = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int r = 0; r < requests; r++) {
+            userWordRepository.insertAll(words(200_000 + r * 50L, 50));
+        }
+        long bulk = System.nanoTime() - start;
+        System.out.printf("50-word requests on H2: saveAll %d us, insertAll %d us per request%n",
+                saveAll / 1_000 / requests, bulk / 1_000 / requests);
+        assertEquals(2 * requests * 50, userWordRepository.count());
+        assertTrue(bulk < saveAll);
+    }
+}
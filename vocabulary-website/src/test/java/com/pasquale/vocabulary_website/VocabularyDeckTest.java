@@ -0,0 +1,68 @@
+package com.pasquale.vocabulary_website;
+
+import com.pasquale.vocabulary_website.Entity.VocabularyItem;
+import com.pasquale.vocabulary_website.Utils.AnkiDatasetReader;
+import com.pasquale.vocabulary_website.Utils.VocabularyDeck;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VocabularyDeckTest {
+
+    @Test
+    void deckViewsMatchParsedItems(@TempDir Path tempDir) throws Exception {
+        Path apkg = SyntheticAnkiDeck.write(tempDir, 2_000);
+        List<VocabularyItem> parsed = new AnkiDatasetReader().readVocabularyItems(apkg.toString());
+        parsed.get(5).setAudio(null);
+        VocabularyDeck.Builder builder = VocabularyDeck.builder(16);
+        parsed.forEach(builder::add);
+        VocabularyDeck deck = builder.build();
+
+        assertEquals(parsed.size(), deck.size());
+        for (int i = 0; i < parsed.size(); i++) {
+            VocabularyItem expected = parsed.get(i);
+            VocabularyItem view = deck.item(i);
+            assertEquals(i, deck.ordinalOf(expected.getNoteId()));
+            assertEquals(expected.getNoteId(), view.getNoteId());
+            assertEquals(expected.getModelId(), view.getModelId());
+            assertEquals(expected.getGerman(), deck.german(i));
+            assertEquals(expected.getGerman(), view.getGerman());
+            assertEquals(expected.getEnglish(), view.getEnglish());
+            assertEquals(expected.getSampleSentence(), view.getSampleSentence());
+            assertEquals(expected.getAudio(), view.getAudio());
+        }
+        assertEquals(-1, deck.ordinalOf(42L));
+        assertNotSame(deck.item(0), deck.item(0), "views are created per call and safe to modify");
+    }
+
+    @Test
+    void deckUsesLessMemoryPerNoteThanItemListAndMaps(@TempDir Path tempDir) throws Exception {
+        int notes = 20_000;
+        Path apkg = SyntheticAnkiDeck.write(tempDir, notes);
+        List<VocabularyItem> items = new AnkiDatasetReader().readVocabularyItems(apkg.toString());
+
+        // What VocabularyService used to keep: the item list, a note id -> item map and a note id -> ordinal map
+        Map<Long, VocabularyItem> byNoteId = new HashMap<>();
+        Map<Long, Integer> ordinals = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            byNoteId.put(items.get(i).getNoteId(), items.get(i));
+            ordinals.put(items.get(i).getNoteId(), i);
+        }
+        VocabularyDeck.Builder builder = VocabularyDeck.builder(notes);
+        items.forEach(builder::add);
+        VocabularyDeck deck = builder.build();
+
+        long before = GraphLayout.parseInstance(items, byNoteId, ordinals).totalSize() / notes;
+        long after = GraphLayout.parseInstance(deck).totalSize() / notes;
+        System.out.println("Bytes per note: list + maps " + before + ", columnar deck " + after);
+
+        assertTrue(after * 2 < before, "expected the deck to at least halve memory per note, got " + before + " -> " + after);
+    }
+}
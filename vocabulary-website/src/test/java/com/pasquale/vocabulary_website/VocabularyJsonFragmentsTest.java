@@ -0,0 +1,92 @@
+package com.pasquale.vocabulary_website;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pasquale.vocabulary_website.Entity.VocabularyItem;
+import com.pasquale.vocabulary_website.Utils.VocabularyDeck;
+import com.pasquale.vocabulary_website.Utils.VocabularyJsonFragments;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Golden test: the spliced fragments must be byte-identical to what the app's ObjectMapper writes for the items
+@JsonTest
+class VocabularyJsonFragmentsTest {
+    private static final String[] AWKWARD = {
+            "", "der \"Hund\"", "C:\\Pfad\\datei", "Zeile 1\nZeile 2\tTab", "Straße, Ärger, Öl", "\u0000\u0001\u001f",
+            "emoji \uD83D\uDC36", "</script>", "<b>fett</b> &amp;", "[sound:hund.mp3]", "\u2028\u2029", "\u0000audio\u0001"};
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static VocabularyDeck deck(int size) {
+        Random random = new Random(7);
+        VocabularyDeck.Builder builder = VocabularyDeck.builder(size);
+        for (int i = 0; i < size; i++) {
+            builder.add(new VocabularyItem(1_500_000_000_000L + i, random.nextLong(), field(random, i), field(random, i),
+                    field(random, i), field(random, i)));
+        }
+        return builder.build();
+    }
+
+    private static String field(Random random, int i) {
+        int pick = random.nextInt(AWKWARD.length + 2);
+        if (pick == AWKWARD.length) {
+            return null;
+        }
+        return pick > AWKWARD.length ? "Wort " + i : AWKWARD[pick];
+    }
+
+    private byte[] spliced(VocabularyJsonFragments fragments, int[] ordinals, String[] audio) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        fragments.writeArray(ordinals, audio, out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void everyNoteMatchesJacksonWithItsOwnAudio() throws Exception {
+        VocabularyDeck deck = deck(2_000);
+        VocabularyJsonFragments fragments = VocabularyJsonFragments.build(deck, objectMapper);
+
+        for (int ordinal = 0; ordinal < deck.size(); ordinal++) {
+            int[] ordinals = {ordinal};
+            byte[] expected = objectMapper.writeValueAsBytes(List.of(deck.item(ordinal)));
+            byte[] actual = spliced(fragments, ordinals, new String[]{deck.audio(ordinal)});
+            assertArrayEquals(expected, actual, () -> new String(actual, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void responsesMatchJacksonWithReplacedAudio() throws Exception {
+        VocabularyDeck deck = deck(500);
+        VocabularyJsonFragments fragments = VocabularyJsonFragments.build(deck, objectMapper);
+        Random random = new Random(11);
+
+        for (int response = 0; response < 200; response++) {
+            int[] ordinals = random.ints(random.nextInt(12), 0, deck.size()).toArray();
+            String[] audio = new String[ordinals.length];
+            List<VocabularyItem> items = new ArrayList<>();
+            for (int i = 0; i < ordinals.length; i++) {
+                audio[i] = random.nextBoolean() ? "https://audio00.forvo.com/mp3/" + i + "/x.mp3" : field(random, i);
+                VocabularyItem item = deck.item(ordinals[i]);
+                item.setAudio(audio[i]);
+                items.add(item);
+            }
+            assertArrayEquals(objectMapper.writeValueAsBytes(items), spliced(fragments, ordinals, audio));
+        }
+    }
+
+    @Test
+    void emptyResponseIsAnEmptyArray() throws Exception {
+        VocabularyJsonFragments fragments = VocabularyJsonFragments.build(deck(3), objectMapper);
+
+        assertEquals("[]", new String(spliced(fragments, new int[0], new String[0]), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,197 @@
+package com.pasquale.vocabulary_website;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pasquale.vocabulary_website.Config.VocabularyDecksProperties;
+import com.pasquale.vocabulary_website.Entity.ApplicationUser;
+import com.pasquale.vocabulary_website.Repository.UserWordRepository;
+import com.pasquale.vocabulary_website.Service.PronunciationService;
+import com.pasquale.vocabulary_website.Service.SeenNotesCache;
+import com.pasquale.vocabulary_website.Service.UnknownDeckException;
+import com.pasquale.vocabulary_website.Service.VocabularyNotReadyException;
+import com.pasquale.vocabulary_website.Service.VocabularyReadinessGate;
+import com.pasquale.vocabulary_website.Service.VocabularyService;
+import com.pasquale.vocabulary_website.Utils.AnkiDatasetReader;
+import com.pasquale.vocabulary_website.Utils.DeckDefinition;
+import com.pasquale.vocabulary_website.Utils.VocabularyDeck;
+import com.pasquale.vocabulary_website.Utils.VocabularyLoadedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class VocabularyReloadTest {
+
+    private final ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    // No decks configured: a single "german" deck read from anki.dataset.path
+    private VocabularyService service(Path dataset, Path snapshotDir) {
+        VocabularyService service = service(new VocabularyDecksProperties(), snapshotDir);
+        ReflectionTestUtils.setField(service, "ankiDatasetPath", dataset.toString());
+        service.loadVocabularyData();
+        return service;
+    }
+
+    private VocabularyService service(VocabularyDecksProperties decks, Path snapshotDir) {
+        VocabularyService service = new VocabularyService(new AnkiDatasetReader(1), mock(UserWordRepository.class),
+                mock(PronunciationService.class), publisher, registry, decks, mock(SeenNotesCache.class), new ObjectMapper());
+        ReflectionTestUtils.setField(service, "snapshotEnabled", true);
+        ReflectionTestUtils.setField(service, "snapshotDir", snapshotDir.toString());
+        return service;
+    }
+
+    @Test
+    void reloadSwapsInNewDeckWhileOldOneStaysUsable(@TempDir Path tempDir) throws Exception {
+        Path dataset = tempDir.resolve("deck.apkg");
+        Files.move(SyntheticAnkiDeck.write(tempDir, 100), dataset);
+        VocabularyService service = service(dataset, tempDir.resolve("snapshots"));
+        service.reload().get(30, TimeUnit.SECONDS);
+        VocabularyDeck first = service.getDeck();
+        assertEquals(100, first.size());
+        assertEquals(1, first.getVersion());
+
+        Files.move(SyntheticAnkiDeck.write(tempDir, 250), dataset, StandardCopyOption.REPLACE_EXISTING);
+        VocabularyDeck second = service.reload(VocabularyService.LEGACY_DECK_NAME).get(30, TimeUnit.SECONDS);
+
+        assertEquals(250, second.size());
+        assertEquals(2, second.getVersion());
+        assertSame(second, service.getDeck());
+        assertEquals(100, first.size(), "a request holding the old deck keeps reading it unchanged");
+        assertNotNull(first.item(99).getGerman());
+        verify(publisher, times(2)).publishEvent(any(VocabularyLoadedEvent.class));
+        assertEquals(2.0, registry.get("vocabulary.deck.version").tag("deck", "german").gauge().value());
+        assertEquals(2, registry.get("vocabulary.deck.reload").tags("deck", "german", "result", "success").timer().count());
+        for (String phase : List.of("extract", "parse", "index", "encode")) {
+            assertEquals(2, registry.get("vocabulary.deck.load.phase").tags("deck", "german", "phase", phase).timer().count(), phase);
+        }
+    }
+
+    @Test
+    void failedReloadKeepsCurrentDeck(@TempDir Path tempDir) throws Exception {
+        Path dataset = tempDir.resolve("deck.apkg");
+        Files.move(SyntheticAnkiDeck.write(tempDir, 100), dataset);
+        VocabularyService service = service(dataset, tempDir.resolve("snapshots"));
+        service.reload().get(30, TimeUnit.SECONDS);
+        VocabularyDeck current = service.getDeck();
+
+        Files.write(dataset, new byte[]{1, 2, 3});
+        assertThrows(ExecutionException.class, () -> service.reload().get(30, TimeUnit.SECONDS));
+
+        assertSame(current, service.getDeck());
+        assertEquals(1, registry.get("vocabulary.deck.reload").tags("deck", "german", "result", "failure").timer().count());
+        verify(publisher, times(1)).publishEvent(any(VocabularyLoadedEvent.class));
+        assertTrue(service.isDeckReady());
+        assertNull(service.getLoadError());
+    }
+
+    @Test
+    void failedFirstLoadLeavesServiceNotReady(@TempDir Path tempDir) {
+        VocabularyService service = service(tempDir.resolve("missing.apkg"), tempDir.resolve("snapshots"));
+
+        assertThrows(ExecutionException.class, () -> service.reload().get(30, TimeUnit.SECONDS));
+        assertFalse(service.isDeckReady());
+        assertNotNull(service.getLoadError());
+        assertThrows(VocabularyNotReadyException.class, () -> service.getNewWordsForUser(new ApplicationUser(), 10));
+    }
+
+    // Waiting on Forvo inside the hand-out's transaction held a pooled connection for up to the enrichment deadline
+    @Test
+    void handOutCommitsBeforeEnrichmentStarts(@TempDir Path tempDir) throws Exception {
+        PronunciationService pronunciationService = mock(PronunciationService.class);
+        when(pronunciationService.enrich(anyList(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+        SeenNotesCache seenNotesCache = mock(SeenNotesCache.class);
+        SeenNotesCache.Snapshot snapshot = mock(SeenNotesCache.Snapshot.class);
+        when(snapshot.copySeen()).thenReturn(new BitSet());
+        when(seenNotesCache.get(anyInt(), anyString(), any())).thenReturn(snapshot);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        UserWordRepository userWordRepository = mock(UserWordRepository.class);
+
+        VocabularyService service = new VocabularyService(new AnkiDatasetReader(1), userWordRepository,
+                pronunciationService, publisher, registry, new VocabularyDecksProperties(), seenNotesCache, new ObjectMapper());
+        ReflectionTestUtils.setField(service, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(service, "ankiDatasetPath", SyntheticAnkiDeck.write(tempDir, 50).toString());
+        service.loadVocabularyData();
+        service.reload().get(30, TimeUnit.SECONDS);
+
+        assertEquals(5, service.getNewWordsForUser(new ApplicationUser(), 5).size());
+        InOrder order = inOrder(userWordRepository, transactionManager, pronunciationService);
+        order.verify(userWordRepository).insertAll(anyList());
+        order.verify(transactionManager).commit(any());
+        order.verify(pronunciationService).enrich(anyList(), any());
+    }
+
+    @Test
+    void decksWithTheirOwnFieldsAndLanguagesLoadSideBySide(@TempDir Path tempDir) throws Exception {
+        VocabularyDecksProperties properties = new VocabularyDecksProperties();
+        VocabularyDecksProperties.Deck german = new VocabularyDecksProperties.Deck();
+        german.setPath(SyntheticAnkiDeck.write(tempDir, 100).toString());
+        // Same package shape read the other way round: English terms with German translations
+        VocabularyDecksProperties.Deck english = new VocabularyDecksProperties.Deck();
+        english.setPath(SyntheticAnkiDeck.write(tempDir, 60).toString());
+        english.setLanguage("en");
+        english.setArticles(List.of("the", "a", "an"));
+        english.setTermField("English");
+        english.setTranslationField("German");
+        properties.getDecks().put("german", german);
+        properties.getDecks().put("english", english);
+        VocabularyService service = service(properties, tempDir.resolve("snapshots"));
+        service.loadVocabularyData();
+
+        service.reload().get(30, TimeUnit.SECONDS);
+
+        assertTrue(service.isDeckReady());
+        assertEquals("german", service.getDefaultDeck());
+        assertEquals(100, service.getDeck("german").size());
+        assertEquals(60, service.getDeck("english").size());
+        assertEquals("english word 0", service.getDeck("english").german(0));
+        assertFalse(service.getDeck("german").german(0).startsWith("english word"));
+        assertEquals(1, service.getDeck("german").getVersion());
+        assertEquals(1, service.getDeck("english").getVersion());
+        DeckDefinition englishDefinition = service.getDeckDefinitions().get(1);
+        assertEquals("en", englishDefinition.getLanguage().getCode());
+        assertNull(englishDefinition.getLanguage().getCountry());
+        assertEquals("en:cat", englishDefinition.getLanguage().key(englishDefinition.getLanguage().cleanWord("the cat")));
+        assertEquals(2, service.getDeckStatus().size());
+        assertThrows(UnknownDeckException.class, () -> service.getDeck("french"));
+
+        // Reloading one deck leaves the other's version alone
+        service.reload("english").get(30, TimeUnit.SECONDS);
+        assertEquals(1, service.getDeck("german").getVersion());
+        assertEquals(2, service.getDeck("english").getVersion());
+    }
+
+    @Test
+    void readinessWaitsForTheDeck() {
+        VocabularyService service = mock(VocabularyService.class);
+        VocabularyReadinessGate gate = new VocabularyReadinessGate(service, publisher);
+        when(service.isDeckReady()).thenReturn(false);
+
+        gate.onReadinessChange(new AvailabilityChangeEvent<>(this, ReadinessState.ACCEPTING_TRAFFIC));
+        when(service.isDeckReady()).thenReturn(true);
+        gate.onVocabularyLoaded(new VocabularyLoadedEvent("german", 1, 100, 5));
+
+        ArgumentCaptor<ApplicationEvent> published = ArgumentCaptor.forClass(ApplicationEvent.class);
+        verify(publisher, times(2)).publishEvent(published.capture());
+        assertEquals(ReadinessState.REFUSING_TRAFFIC, ((AvailabilityChangeEvent<?>) published.getAllValues().get(0)).getState());
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, ((AvailabilityChangeEvent<?>) published.getAllValues().get(1)).getState());
+    }
+}
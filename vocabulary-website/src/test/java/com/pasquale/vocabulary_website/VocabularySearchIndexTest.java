@@ -0,0 +1,52 @@
+package com.pasquale.vocabulary_website;
+
+import com.pasquale.vocabulary_website.Entity.VocabularyItem;
+import com.pasquale.vocabulary_website.Utils.PronunciationLanguage;
+import com.pasquale.vocabulary_website.Utils.VocabularyDeck;
+import com.pasquale.vocabulary_website.Utils.VocabularySearchIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VocabularySearchIndexTest {
+
+    private final VocabularyDeck deck = VocabularyDeck.builder(7)
+            .add(new VocabularyItem(1L, 7L, "die Straße", "street", "Die Straße ist lang.", null))
+            .add(new VocabularyItem(2L, 7L, "das Mädchen", "girl", "Das Mädchen liest.", null))
+            .add(new VocabularyItem(3L, 7L, "der Schlüssel (-)", "key", "Wo ist der Schlüssel?", null))
+            .add(new VocabularyItem(4L, 7L, "die Brücke", "bridge", "Wir gehen über die Straße zur Brücke.", null))
+            .add(new VocabularyItem(5L, 7L, "der Straßenbahnfahrer", "tram driver", null, null))
+            .add(new VocabularyItem(6L, 7L, "das Haus", "house", "Das Haus hat einen Schlüssel.", null))
+            .add(new VocabularyItem(7L, 7L, "sterben", "to die", "Alle Menschen sterben.", null))
+            .build();
+    private final VocabularySearchIndex index = VocabularySearchIndex.build(deck, PronunciationLanguage.GERMAN);
+
+    private long[] noteIds(String query, int limit) {
+        return Arrays.stream(index.search(query, limit)).mapToLong(deck::noteId).toArray();
+    }
+
+    @Test
+    void matchesExactPrefixAndFoldedSpellings() {
+        // Term match first, then the prefix match, then the note that only mentions it in its sentence
+        assertArrayEquals(new long[]{1, 5, 4}, noteIds("Straße", 10));
+        assertArrayEquals(new long[]{1, 5, 4}, noteIds("strasse", 10));
+        assertArrayEquals(new long[]{2}, noteIds("MAEDCHEN", 10));
+        assertArrayEquals(new long[]{5}, noteIds("strassenb", 10));
+        assertArrayEquals(new long[]{4}, noteIds("bridge", 10));
+        assertArrayEquals(new long[]{1}, noteIds("Straße", 1));
+    }
+
+    @Test
+    void articlesAreIgnoredAndTyposMatchFuzzily() {
+        assertArrayEquals(noteIds("Brücke", 10), noteIds("die Brücke", 10));
+        // Only the term field drops articles: the translation "to die" ranks first, then sentences using the article
+        assertArrayEquals(new long[]{7, 1, 4}, noteIds("die", 10));
+        assertArrayEquals(new long[]{7}, noteIds("to die", 1));
+        assertArrayEquals(new long[]{3, 6}, noteIds("Schlusel", 10));
+        assertEquals(0, noteIds("xyzzy", 10).length);
+        assertEquals(0, noteIds("  ", 10).length);
+        assertEquals(0, VocabularySearchIndex.EMPTY.search("Haus", 10).length);
+    }
+}
@@ -0,0 +1,73 @@
+package com.pasquale.vocabulary_website;
+
+import com.pasquale.vocabulary_website.Entity.VocabularyItem;
+import com.pasquale.vocabulary_website.Utils.AnkiDatasetReader;
+import com.pasquale.vocabulary_website.Utils.VocabularyDeck;
+import com.pasquale.vocabulary_website.Utils.VocabularySnapshotFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VocabularySnapshotFileTest {
+
+    @Test
+    void snapshotRoundTripsParsedDeck(@TempDir Path tempDir) throws Exception {
+        Path deck = SyntheticAnkiDeck.write(tempDir, 300);
+        List<VocabularyItem> parsed = new AnkiDatasetReader().readVocabularyItems(deck.toString());
+        parsed.get(0).setSampleSentence(null);
+        VocabularyDeck.Builder builder = VocabularyDeck.builder(parsed.size());
+        parsed.forEach(builder::add);
+        byte[] checksum = VocabularySnapshotFile.checksum(deck);
+        Path snapshot = tempDir.resolve(VocabularySnapshotFile.fileName(checksum));
+
+        VocabularySnapshotFile.write(snapshot, checksum, builder.build());
+        VocabularyDeck restored = VocabularySnapshotFile.read(snapshot, checksum);
+
+        assertEquals(parsed.size(), restored.size());
+        for (int i = 0; i < parsed.size(); i++) {
+            VocabularyItem expected = parsed.get(i);
+            VocabularyItem actual = restored.item(i);
+            assertEquals(expected.getNoteId(), actual.getNoteId());
+            assertEquals(expected.getModelId(), actual.getModelId());
+            assertEquals(expected.getGerman(), actual.getGerman());
+            assertEquals(expected.getEnglish(), actual.getEnglish());
+            assertEquals(expected.getSampleSentence(), actual.getSampleSentence());
+            assertEquals(expected.getAudio(), actual.getAudio());
+        }
+    }
+
+    @Test
+    void corruptTruncatedOrStaleSnapshotsAreRejected(@TempDir Path tempDir) throws Exception {
+        VocabularyDeck items = VocabularyDeck.builder(2)
+                .add(new VocabularyItem(1L, 7L, "die Straße", "street", "Die Straße ist lang.", "[sound:a.mp3]"))
+                .add(new VocabularyItem(2L, 7L, "das Mädchen", "girl", null, null))
+                .build();
+        byte[] checksum = new byte[32];
+        Arrays.fill(checksum, (byte) 1);
+        Path snapshot = tempDir.resolve("deck.vvsnap");
+        VocabularySnapshotFile.write(snapshot, checksum, items);
+        byte[] valid = Files.readAllBytes(snapshot);
+
+        byte[] otherChecksum = checksum.clone();
+        otherChecksum[0] = 2;
+        assertThrows(IOException.class, () -> VocabularySnapshotFile.read(snapshot, otherChecksum));
+
+        byte[] flipped = valid.clone();
+        flipped[flipped.length / 2] ^= 0x40;
+        Files.write(snapshot, flipped);
+        assertThrows(IOException.class, () -> VocabularySnapshotFile.read(snapshot, checksum));
+
+        Files.write(snapshot, Arrays.copyOf(valid, valid.length - 11));
+        assertThrows(IOException.class, () -> VocabularySnapshotFile.read(snapshot, checksum));
+
+        Files.write(snapshot, valid);
+        assertEquals(2, VocabularySnapshotFile.read(snapshot, checksum).size());
+    }
+}
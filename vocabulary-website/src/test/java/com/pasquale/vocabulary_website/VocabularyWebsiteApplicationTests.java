@@ -3,6 +3,8 @@ package com.pasquale.vocabulary_website;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 @SpringBootTest
 class VocabularyWebsiteApplicationTests {
 
@@ -10,4 +12,10 @@ class VocabularyWebsiteApplicationTests {
 	void contextLoads() {
 	}
 
+	// Tests start the context without main(), so its defaults are checked directly
+	@Test
+	void requestsDoNotHoldAConnectionOutsideTransactions() {
+		assertEquals("false", VocabularyWebsiteApplication.defaultProperties().get("spring.jpa.open-in-view"));
+	}
+
 }